@@ -0,0 +1,115 @@
+package customerinfo.app;
+
+import org.apache.poi.ss.usermodel.Cell;
+import org.apache.poi.ss.usermodel.CellType;
+import org.apache.poi.ss.usermodel.DataFormatter;
+import org.apache.poi.ss.usermodel.DateUtil;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.ss.usermodel.Workbook;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+// Turns pasted text, a CSV file or an XLSX sheet into the list of numbers for a bulk lookup.
+// Anything that isn't a 4-20 digit number (headers, names, blank cells) is ignored,
+// and duplicates are dropped so each number is looked up once, in first-seen order.
+public class BulkInputParser {
+
+    private static final int MIN_DIGITS = 4;
+    private static final int MAX_DIGITS = 20;
+
+    private BulkInputParser() {
+    }
+
+    // Numbers separated by newlines, spaces, commas, semicolons or tabs
+    public static List<String> parseText(String text) {
+        Set<String> numbers = new LinkedHashSet<>();
+        if (text != null) {
+            addTokens(text, numbers);
+        }
+        return new ArrayList<>(numbers);
+    }
+
+    // CSV (or plain text) file, read line by line
+    public static List<String> parseCsv(InputStream input) throws IOException {
+        Set<String> numbers = new LinkedHashSet<>();
+        try (BufferedReader reader = new BufferedReader(toReader(input))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                addTokens(line, numbers);
+            }
+        }
+        return new ArrayList<>(numbers);
+    }
+
+    // First sheet of an XLSX file; every cell is checked, as displayed in Excel
+    public static List<String> parseXlsx(InputStream input) throws IOException {
+        Set<String> numbers = new LinkedHashSet<>();
+        DataFormatter formatter = new DataFormatter();
+
+        try (Workbook workbook = new XSSFWorkbook(input)) {
+            if (workbook.getNumberOfSheets() == 0) {
+                return new ArrayList<>();
+            }
+            Sheet sheet = workbook.getSheetAt(0);
+            for (Row row : sheet) {
+                for (Cell cell : row) {
+                    addTokens(cellText(cell, formatter), numbers);
+                }
+            }
+        }
+        return new ArrayList<>(numbers);
+    }
+
+    // Pick the parser from the file name or MIME type
+    public static List<String> parseFile(InputStream input, String nameOrType) throws IOException {
+        String hint = nameOrType != null ? nameOrType.toLowerCase() : "";
+        if (hint.endsWith(".xlsx") || hint.contains("spreadsheetml")) {
+            return parseXlsx(input);
+        }
+        return parseCsv(input);
+    }
+
+    // Long numbers typed into a General cell would be formatted as 1.23E+11
+    private static String cellText(Cell cell, DataFormatter formatter) {
+        if (cell.getCellType() == CellType.NUMERIC && !DateUtil.isCellDateFormatted(cell)) {
+            return new BigDecimal(cell.getNumericCellValue()).toPlainString();
+        }
+        return formatter.formatCellValue(cell);
+    }
+
+    private static Reader toReader(InputStream input) {
+        return new InputStreamReader(input, StandardCharsets.UTF_8);
+    }
+
+    private static void addTokens(String text, Set<String> numbers) {
+        for (String token : text.split("[\\s,;\"']+")) {
+            if (isNumber(token)) {
+                numbers.add(token);
+            }
+        }
+    }
+
+    private static boolean isNumber(String token) {
+        if (token.length() < MIN_DIGITS || token.length() > MAX_DIGITS) {
+            return false;
+        }
+        for (int i = 0; i < token.length(); i++) {
+            if (!Character.isDigit(token.charAt(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
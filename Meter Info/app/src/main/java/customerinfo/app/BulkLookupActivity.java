@@ -0,0 +1,335 @@
+package customerinfo.app;
+
+import android.Manifest;
+import android.content.Intent;
+import android.content.pm.PackageManager;
+import android.net.Uri;
+import android.os.Build;
+import android.os.Bundle;
+import android.os.Environment;
+import android.widget.Button;
+import android.widget.EditText;
+import android.widget.ProgressBar;
+import android.widget.RadioGroup;
+import android.widget.TextView;
+import androidx.appcompat.app.AppCompatActivity;
+import androidx.core.content.ContextCompat;
+
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+// Bulk mode: look up a pasted list or a CSV/XLSX file of numbers in one go.
+// Numbers run through BulkLookupRunner with live progress and throughput, every
+// successful result of a run goes to Excel in a single save, and only the failed
+// numbers are looked up again on "Retry failed".
+public class BulkLookupActivity extends AppCompatActivity implements BulkLookupRunner.Listener {
+
+    private static final int PICK_FILE_CODE = 201;
+    private static final String[] INPUT_MIME_TYPES = {
+            "text/csv", "text/comma-separated-values", "text/plain",
+            "application/vnd.openxmlformats-officedocument.spreadsheetml.sheet"};
+
+    private EditText bulkInput;
+    private EditText bulkConcurrency;
+    private RadioGroup bulkTypeGroup;
+    private Button bulkStart;
+    private Button bulkRetry;
+    private Button bulkCancel;
+    private ProgressBar bulkProgress;
+    private TextView bulkLog;
+
+    private BulkLookupRunner runner;
+    private String runType;
+    // Successful items of the current run, saved to Excel when it completes
+    private final List<BulkLookupRunner.Item> succeeded = new ArrayList<>();
+    private final ExecutorService excelWriter = Executors.newSingleThreadExecutor(
+            runnable -> new Thread(runnable, "bulk-excel"));
+
+    @Override
+    protected void onCreate(Bundle savedInstanceState) {
+        super.onCreate(savedInstanceState);
+        setContentView(R.layout.bulk_lookup);
+        LookupCache.init(getFilesDir());
+
+        bulkInput = findViewById(R.id.bulkInput);
+        bulkConcurrency = findViewById(R.id.bulkConcurrency);
+        bulkTypeGroup = findViewById(R.id.bulkTypeGroup);
+        bulkStart = findViewById(R.id.bulkStart);
+        bulkRetry = findViewById(R.id.bulkRetry);
+        bulkCancel = findViewById(R.id.bulkCancel);
+        bulkProgress = findViewById(R.id.bulkProgress);
+        bulkLog = findViewById(R.id.bulkLog);
+
+        bulkConcurrency.setText(String.valueOf(BulkLookupRunner.DEFAULT_CONCURRENCY));
+        bulkConcurrency.setHint("1-" + BulkLookupRunner.getMaxConcurrency());
+
+        findViewById(R.id.backBtn).setOnClickListener(v -> finish());
+        findViewById(R.id.bulkPickFile).setOnClickListener(v -> pickFile());
+        bulkStart.setOnClickListener(v -> startBulk());
+        bulkRetry.setOnClickListener(v -> retryFailed());
+        bulkCancel.setOnClickListener(v -> {
+            if (runner != null && runner.isRunning()) {
+                runner.cancel();
+                appendLog("🛑 Cancelled - unfinished numbers can be retried");
+                updateButtons(false);
+                // Keep what already finished
+                saveInBackground(takeSucceeded());
+            }
+        });
+    }
+
+    private void pickFile() {
+        Intent intent = new Intent(Intent.ACTION_OPEN_DOCUMENT);
+        intent.addCategory(Intent.CATEGORY_OPENABLE);
+        intent.setType("*/*");
+        intent.putExtra(Intent.EXTRA_MIME_TYPES, INPUT_MIME_TYPES);
+        startActivityForResult(intent, PICK_FILE_CODE);
+    }
+
+    @Override
+    protected void onActivityResult(int requestCode, int resultCode, Intent data) {
+        super.onActivityResult(requestCode, resultCode, data);
+        if (requestCode != PICK_FILE_CODE || resultCode != RESULT_OK || data == null || data.getData() == null) {
+            return;
+        }
+
+        Uri uri = data.getData();
+        String hint = getContentResolver().getType(uri) + " " + uri.getLastPathSegment();
+        appendLog("📂 Reading " + uri.getLastPathSegment());
+
+        // POI can take a moment on a big sheet - keep it off the UI thread
+        new Thread(() -> {
+            try (InputStream input = getContentResolver().openInputStream(uri)) {
+                List<String> numbers = BulkInputParser.parseFile(input, hint.trim());
+                runOnUiThread(() -> {
+                    bulkInput.setText(String.join("\n", numbers));
+                    appendLog("✅ " + numbers.size() + " numbers loaded from file");
+                });
+            } catch (Exception e) {
+                runOnUiThread(() -> appendLog("❌ Could not read file: " + e.getMessage()));
+            }
+        }, "bulk-file-reader").start();
+    }
+
+    private void startBulk() {
+        if (runner != null && runner.isRunning()) {
+            return;
+        }
+
+        List<String> numbers = BulkInputParser.parseText(bulkInput.getText().toString());
+        if (numbers.isEmpty()) {
+            appendLog("❌ No numbers found");
+            return;
+        }
+
+        String type = "prepaid";
+        String subType = "";
+        int checkedId = bulkTypeGroup.getCheckedRadioButtonId();
+        if (checkedId == R.id.bulkPostpaidConsumer) {
+            type = "postpaid";
+            subType = "consumer_no";
+        } else if (checkedId == R.id.bulkPostpaidMeter) {
+            type = "postpaid";
+            subType = "meter_no";
+        }
+
+        if (type.equals("prepaid")) {
+            List<String> invalid = new ArrayList<>();
+            for (String number : numbers) {
+                if (number.length() != 12) {
+                    invalid.add(number);
+                }
+            }
+            if (!invalid.isEmpty()) {
+                appendLog("⚠️ Skipping " + invalid.size() + " numbers that are not 12 digits");
+                numbers.removeAll(invalid);
+            }
+            if (numbers.isEmpty()) {
+                appendLog("❌ Prepaid meter must be 12 digits");
+                return;
+            }
+        }
+
+        if (runner != null) {
+            runner.shutdown();
+        }
+        runType = type;
+        bulkLog.setText("");
+        runner = new BulkLookupRunner(numbers, type, subType, readConcurrency());
+        appendLog("📦 " + numbers.size() + " numbers, " + runner.getConcurrency() + " at a time");
+        beginRun();
+        runner.start(this);
+    }
+
+    private void retryFailed() {
+        if (runner == null || runner.isRunning()) {
+            return;
+        }
+        runner.setConcurrency(readConcurrency());
+        int failed = runner.getFailedCount();
+        beginRun();
+        if (runner.retryFailed(this)) {
+            appendLog("🔄 Retrying " + failed + " failed numbers");
+        } else {
+            appendLog("✅ Nothing to retry");
+            updateButtons(false);
+        }
+    }
+
+    private int readConcurrency() {
+        int concurrency;
+        try {
+            concurrency = Integer.parseInt(bulkConcurrency.getText().toString().trim());
+        } catch (NumberFormatException e) {
+            concurrency = BulkLookupRunner.DEFAULT_CONCURRENCY;
+        }
+        int max = BulkLookupRunner.getMaxConcurrency();
+        if (concurrency > max) {
+            appendLog("⚠️ At most " + max + " at a time - the lookup pools don't run more in parallel");
+            concurrency = max;
+            bulkConcurrency.setText(String.valueOf(max));
+        }
+        return concurrency;
+    }
+
+    private void beginRun() {
+        synchronized (succeeded) {
+            succeeded.clear();
+        }
+        bulkProgress.setProgress(0);
+        updateButtons(true);
+    }
+
+    private void updateButtons(boolean running) {
+        bulkStart.setEnabled(!running);
+        bulkCancel.setEnabled(running);
+        bulkRetry.setEnabled(!running && runner != null && runner.getFailedCount() > 0);
+    }
+
+    @Override
+    public void onItemFinished(BulkLookupRunner.Item item, BulkLookupRunner.Progress progress) {
+        if (BulkLookupRunner.DONE.equals(item.getStatus())) {
+            synchronized (succeeded) {
+                succeeded.add(item);
+            }
+        }
+
+        String line = BulkLookupRunner.DONE.equals(item.getStatus()) ?
+                "✅ " + item.number + " (" + item.getDurationMs() + " ms)" :
+                "❌ " + item.number + ": " + item.getError();
+        // Requests held back by the per-host limits
+        int queued = HostGovernor.getTotalQueued();
+        String status = progress.format() + (queued > 0 ? ", 🚦 " + queued + " queued" : "");
+        runOnUiThread(() -> {
+            bulkProgress.setProgress(progress.total > 0 ? progress.getFinished() * 100 / progress.total : 0);
+            appendLog(line + "\n   " + status);
+        });
+    }
+
+    @Override
+    public void onComplete(BulkLookupRunner.Progress progress) {
+        List<BulkLookupRunner.Item> finished = takeSucceeded();
+        runOnUiThread(() -> {
+            bulkProgress.setProgress(100);
+            appendLog("🏁 " + progress.format() + " in " + (progress.elapsedMs / 1000) + " s");
+            updateButtons(false);
+        });
+        saveInBackground(finished);
+    }
+
+    // Every save loads the workbook and rewrites the whole file, so saves from a cancelled
+    // run and from a retry right after it must not overlap: they all go through one thread
+    private void saveInBackground(List<BulkLookupRunner.Item> items) {
+        if (items.isEmpty()) {
+            return;
+        }
+        excelWriter.execute(() -> {
+            int saved = saveToExcel(items);
+            if (saved >= 0) {
+                runOnUiThread(() -> appendLog("💾 " + saved + " results saved to Excel"));
+            }
+        });
+    }
+
+    private List<BulkLookupRunner.Item> takeSucceeded() {
+        synchronized (succeeded) {
+            List<BulkLookupRunner.Item> items = new ArrayList<>(succeeded);
+            succeeded.clear();
+            return items;
+        }
+    }
+
+    // Returns the number of results saved, or -1 if Excel isn't available
+    private int saveToExcel(List<BulkLookupRunner.Item> items) {
+        if (items.isEmpty()) {
+            return 0;
+        }
+        if (!isStoragePermissionGranted()) {
+            runOnUiThread(() -> appendLog("⚠️ Storage permission required - open 🔍 lookup once to grant it"));
+            return -1;
+        }
+
+        // Input order, not completion order
+        Collections.sort(items, new Comparator<BulkLookupRunner.Item>() {
+            @Override
+            public int compare(BulkLookupRunner.Item a, BulkLookupRunner.Item b) {
+                return Integer.compare(a.index, b.index);
+            }
+        });
+
+        // Keyed by the number that was looked up, like MainActivity passes inputNumber
+        Map<String, Map<String, String>> prepaidRows = new LinkedHashMap<>();
+        List<Map<String, String>> postpaidRows = new ArrayList<>();
+        for (BulkLookupRunner.Item item : items) {
+            Map<String, Object> result = item.getResult();
+            if (runType.equals("prepaid")) {
+                prepaidRows.put(item.number, ServerDataHelper.extractDataForExcel(result, "prepaid"));
+            } else if (result.containsKey("customer_results")) {
+                List<Map<String, Object>> customerResults = (List<Map<String, Object>>) result.get("customer_results");
+                for (Map<String, Object> customerResult : customerResults) {
+                    postpaidRows.add(ServerDataHelper.extractDataForExcel(customerResult, "postpaid"));
+                }
+            } else {
+                postpaidRows.add(ServerDataHelper.extractDataForExcel(result, "postpaid"));
+            }
+        }
+
+        ExcelHelper excelHelper = new ExcelHelper(this);
+        try {
+            boolean ok = excelHelper.saveBatch("User", prepaidRows, postpaidRows);
+            return ok ? prepaidRows.size() + postpaidRows.size() : -1;
+        } finally {
+            excelHelper.close();
+        }
+    }
+
+    private boolean isStoragePermissionGranted() {
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.R) {
+            return Environment.isExternalStorageManager();
+        } else {
+            return ContextCompat.checkSelfPermission(this, Manifest.permission.WRITE_EXTERNAL_STORAGE)
+                    == PackageManager.PERMISSION_GRANTED;
+        }
+    }
+
+    private void appendLog(String line) {
+        bulkLog.append(line + "\n");
+    }
+
+    @Override
+    protected void onDestroy() {
+        super.onDestroy();
+        if (runner != null) {
+            runner.shutdown();
+        }
+        // Saves already queued still finish
+        excelWriter.shutdown();
+    }
+}
@@ -24,6 +24,8 @@ public class ExcelHelper {
     private Sheet prepaidSheet;
     private Sheet postpaidSheet;
     private String filePath;
+    // Rows added since the last successful save
+    private boolean unsavedRows;
 
     public ExcelHelper(Context context) {
         this.context = context;
@@ -187,39 +189,7 @@ public class ExcelHelper {
 
     public void savePrepaidLookup(String user, String meterNumber, Map<String, String> customerData) {
         try {
-            int currentRows = prepaidSheet.getPhysicalNumberOfRows();
-            Row row = prepaidSheet.createRow(currentRows);
-
-            String timestamp = new SimpleDateFormat("yyyy-MM-dd HH:mm:ss", Locale.getDefault())
-                    .format(new Date());
-
-            int col = 0;
-            row.createCell(col++).setCellValue(timestamp);
-            row.createCell(col++).setCellValue(user);
-            row.createCell(col++).setCellValue(getSafeString(meterNumber));
-            row.createCell(col++).setCellValue(getSafeString(customerData.get("Consumer Number")));
-            row.createCell(col++).setCellValue(getSafeString(customerData.get("Lock Status")));
-            row.createCell(col++).setCellValue(getSafeString(customerData.get("Account Type")));
-            row.createCell(col++).setCellValue(getSafeString(customerData.get("Customer Name")));
-            row.createCell(col++).setCellValue(getSafeString(customerData.get("Customer Address")));
-            row.createCell(col++).setCellValue(getSafeString(customerData.get("Phone")));
-            row.createCell(col++).setCellValue(getSafeString(customerData.get("Division")));
-            row.createCell(col++).setCellValue(getSafeString(customerData.get("Sub Division")));
-            row.createCell(col++).setCellValue(getSafeString(customerData.get("Location Code")));
-            row.createCell(col++).setCellValue(getSafeString(customerData.get("Area Code")));
-            row.createCell(col++).setCellValue(getSafeString(customerData.get("Description")));
-            row.createCell(col++).setCellValue(getSafeString(customerData.get("Tariff Category")));
-            row.createCell(col++).setCellValue(getSafeString(customerData.get("Sanctioned Load")));
-            row.createCell(col++).setCellValue(getSafeString(customerData.get("Installation Date")));
-            row.createCell(col++).setCellValue(getSafeString(customerData.get("Connection Date")));
-            row.createCell(col++).setCellValue(getSafeString(customerData.get("Bill Group")));
-            row.createCell(col++).setCellValue(getSafeString(customerData.get("Book Number")));
-            row.createCell(col++).setCellValue(getSafeString(customerData.get("Walk Order")));
-            row.createCell(col++).setCellValue(getSafeString(customerData.get("Account_Number")));
-            row.createCell(col++).setCellValue(getSafeString(customerData.get("Last Recharge Time")));
-            row.createCell(col++).setCellValue(getSafeString(customerData.get("Last Recharge Amount")));
-            row.createCell(col++).setCellValue(getSafeString(customerData.get("Arrear Amount")));
-            row.createCell(col++).setCellValue(getSafeString(customerData.get("Total Balance")));
+            addPrepaidRow(user, meterNumber, customerData);
 
             // Save the workbook
             boolean saved = saveWorkbook();
@@ -235,36 +205,46 @@ public class ExcelHelper {
         }
     }
 
+    private void addPrepaidRow(String user, String meterNumber, Map<String, String> customerData) {
+        int currentRows = prepaidSheet.getPhysicalNumberOfRows();
+        Row row = prepaidSheet.createRow(currentRows);
+        unsavedRows = true;
+
+        String timestamp = new SimpleDateFormat("yyyy-MM-dd HH:mm:ss", Locale.getDefault())
+                .format(new Date());
+
+        int col = 0;
+        row.createCell(col++).setCellValue(timestamp);
+        row.createCell(col++).setCellValue(user);
+        row.createCell(col++).setCellValue(getSafeString(meterNumber));
+        row.createCell(col++).setCellValue(getSafeString(customerData.get("Consumer Number")));
+        row.createCell(col++).setCellValue(getSafeString(customerData.get("Lock Status")));
+        row.createCell(col++).setCellValue(getSafeString(customerData.get("Account Type")));
+        row.createCell(col++).setCellValue(getSafeString(customerData.get("Customer Name")));
+        row.createCell(col++).setCellValue(getSafeString(customerData.get("Customer Address")));
+        row.createCell(col++).setCellValue(getSafeString(customerData.get("Phone")));
+        row.createCell(col++).setCellValue(getSafeString(customerData.get("Division")));
+        row.createCell(col++).setCellValue(getSafeString(customerData.get("Sub Division")));
+        row.createCell(col++).setCellValue(getSafeString(customerData.get("Location Code")));
+        row.createCell(col++).setCellValue(getSafeString(customerData.get("Area Code")));
+        row.createCell(col++).setCellValue(getSafeString(customerData.get("Description")));
+        row.createCell(col++).setCellValue(getSafeString(customerData.get("Tariff Category")));
+        row.createCell(col++).setCellValue(getSafeString(customerData.get("Sanctioned Load")));
+        row.createCell(col++).setCellValue(getSafeString(customerData.get("Installation Date")));
+        row.createCell(col++).setCellValue(getSafeString(customerData.get("Connection Date")));
+        row.createCell(col++).setCellValue(getSafeString(customerData.get("Bill Group")));
+        row.createCell(col++).setCellValue(getSafeString(customerData.get("Book Number")));
+        row.createCell(col++).setCellValue(getSafeString(customerData.get("Walk Order")));
+        row.createCell(col++).setCellValue(getSafeString(customerData.get("Account_Number")));
+        row.createCell(col++).setCellValue(getSafeString(customerData.get("Last Recharge Time")));
+        row.createCell(col++).setCellValue(getSafeString(customerData.get("Last Recharge Amount")));
+        row.createCell(col++).setCellValue(getSafeString(customerData.get("Arrear Amount")));
+        row.createCell(col++).setCellValue(getSafeString(customerData.get("Total Balance")));
+    }
+
     public void savePostpaidLookup(String user, Map<String, String> customerData) {
         try {
-            int currentRows = postpaidSheet.getPhysicalNumberOfRows();
-            Row row = postpaidSheet.createRow(currentRows);
-
-            String timestamp = new SimpleDateFormat("yyyy-MM-dd HH:mm:ss", Locale.getDefault())
-                    .format(new Date());
-
-            int col = 0;
-            row.createCell(col++).setCellValue(timestamp);
-            row.createCell(col++).setCellValue(user);
-            row.createCell(col++).setCellValue(getSafeString(customerData.get("Customer Name")));
-            row.createCell(col++).setCellValue(getSafeString(customerData.get("Customer Address")));
-            row.createCell(col++).setCellValue(getSafeString(customerData.get("Meter Number")));
-            row.createCell(col++).setCellValue(getSafeString(customerData.get("Meter Condition")));
-            row.createCell(col++).setCellValue(getSafeString(customerData.get("Meter Status")));
-            row.createCell(col++).setCellValue(getSafeString(customerData.get("Connection Date")));
-            row.createCell(col++).setCellValue(getSafeString(customerData.get("Customer Number")));
-            row.createCell(col++).setCellValue(getSafeString(customerData.get("Location Code")));
-            row.createCell(col++).setCellValue(getSafeString(customerData.get("Area Code")));
-            row.createCell(col++).setCellValue(getSafeString(customerData.get("Bill Group")));
-            row.createCell(col++).setCellValue(getSafeString(customerData.get("Book Number")));
-            row.createCell(col++).setCellValue(getSafeString(customerData.get("Tariff Description")));
-            row.createCell(col++).setCellValue(getSafeString(customerData.get("Sanctioned Load")));
-            row.createCell(col++).setCellValue(getSafeString(customerData.get("Walk Order")));
-            row.createCell(col++).setCellValue(getSafeString(customerData.get("Account_Number")));
-            row.createCell(col++).setCellValue(getSafeString(customerData.get("Usage Type")));
-            row.createCell(col++).setCellValue(getSafeString(customerData.get("Description")));
-            row.createCell(col++).setCellValue(getSafeString(customerData.get("Start Bill Cycle")));
-            row.createCell(col++).setCellValue(getSafeString(customerData.get("Arrear Amount")));
+            addPostpaidRow(user, customerData);
 
             // Save the workbook
             boolean saved = saveWorkbook();
@@ -280,10 +260,73 @@ public class ExcelHelper {
         }
     }
 
+    private void addPostpaidRow(String user, Map<String, String> customerData) {
+        int currentRows = postpaidSheet.getPhysicalNumberOfRows();
+        Row row = postpaidSheet.createRow(currentRows);
+        unsavedRows = true;
+
+        String timestamp = new SimpleDateFormat("yyyy-MM-dd HH:mm:ss", Locale.getDefault())
+                .format(new Date());
+
+        int col = 0;
+        row.createCell(col++).setCellValue(timestamp);
+        row.createCell(col++).setCellValue(user);
+        row.createCell(col++).setCellValue(getSafeString(customerData.get("Customer Name")));
+        row.createCell(col++).setCellValue(getSafeString(customerData.get("Customer Address")));
+        row.createCell(col++).setCellValue(getSafeString(customerData.get("Meter Number")));
+        row.createCell(col++).setCellValue(getSafeString(customerData.get("Meter Condition")));
+        row.createCell(col++).setCellValue(getSafeString(customerData.get("Meter Status")));
+        row.createCell(col++).setCellValue(getSafeString(customerData.get("Connection Date")));
+        row.createCell(col++).setCellValue(getSafeString(customerData.get("Customer Number")));
+        row.createCell(col++).setCellValue(getSafeString(customerData.get("Location Code")));
+        row.createCell(col++).setCellValue(getSafeString(customerData.get("Area Code")));
+        row.createCell(col++).setCellValue(getSafeString(customerData.get("Bill Group")));
+        row.createCell(col++).setCellValue(getSafeString(customerData.get("Book Number")));
+        row.createCell(col++).setCellValue(getSafeString(customerData.get("Tariff Description")));
+        row.createCell(col++).setCellValue(getSafeString(customerData.get("Sanctioned Load")));
+        row.createCell(col++).setCellValue(getSafeString(customerData.get("Walk Order")));
+        row.createCell(col++).setCellValue(getSafeString(customerData.get("Account_Number")));
+        row.createCell(col++).setCellValue(getSafeString(customerData.get("Usage Type")));
+        row.createCell(col++).setCellValue(getSafeString(customerData.get("Description")));
+        row.createCell(col++).setCellValue(getSafeString(customerData.get("Start Bill Cycle")));
+        row.createCell(col++).setCellValue(getSafeString(customerData.get("Arrear Amount")));
+    }
+
     public void saveMultiplePostpaidLookups(String user, List<Map<String, String>> customerDataList) {
-        for (Map<String, String> customerData : customerDataList) {
-            savePostpaidLookup(user, customerData);
+        saveBatch(user, null, customerDataList);
+    }
+
+    // Add all rows, then write the file once - a 500-row bulk lookup is one save, not 500.
+    // Prepaid rows are keyed by the meter number that was looked up, like savePrepaidLookup's
+    // meterNumber: the row's own "Meter Number" can be SERVER 2's METER_NUM instead.
+    public boolean saveBatch(String user, Map<String, Map<String, String>> prepaidRowsByMeter,
+                             List<Map<String, String>> postpaidRows) {
+        int added = 0;
+        try {
+            if (prepaidRowsByMeter != null) {
+                for (Map.Entry<String, Map<String, String>> entry : prepaidRowsByMeter.entrySet()) {
+                    addPrepaidRow(user, entry.getKey(), entry.getValue());
+                    added++;
+                }
+            }
+            if (postpaidRows != null) {
+                for (Map<String, String> customerData : postpaidRows) {
+                    addPostpaidRow(user, customerData);
+                    added++;
+                }
+            }
+        } catch (Exception e) {
+            Log.e(TAG, "❌ Error adding batch rows: " + e.getMessage());
         }
+
+        boolean saved = saveWorkbook();
+        if (saved) {
+            showToast("✅ " + added + " rows saved to Excel");
+            debugFileInfo();
+        } else {
+            showToast("❌ Failed to save " + added + " rows");
+        }
+        return saved;
     }
 
     private String getSafeString(String value) {
@@ -310,6 +353,7 @@ public class ExcelHelper {
             FileOutputStream fos = new FileOutputStream(file, false); // false = overwrite
             workbook.write(fos);
             fos.close();
+            unsavedRows = false;
             
             Log.d(TAG, "✅ Successfully saved: " + file.length() + " bytes");
             
@@ -372,7 +416,9 @@ public class ExcelHelper {
     public void close() {
         try {
             if (workbook != null) {
-                saveWorkbook(); // Save before closing
+                if (unsavedRows) {
+                    saveWorkbook(); // Save before closing
+                }
                 workbook.close();
                 Log.d(TAG, "✅ Workbook closed successfully");
             }
@@ -1,17 +1,25 @@
 package customerinfo.app;
+import android.app.AlertDialog;
 import android.content.Intent;
 import android.os.Bundle;
 import android.widget.Button;
+import android.widget.Toast;
 import androidx.appcompat.app.AppCompatActivity;
+import java.io.File;
 
 public class Home extends AppCompatActivity {
     @Override
     protected void onCreate(Bundle savedInstanceState) {
         super.onCreate(savedInstanceState);
         setContentView(R.layout.home);
+        LookupCache.init(getFilesDir());
+        // DNS + TCP/TLS to the BPDB hosts while the user picks a screen
+        ConnectionWarmer.warmUp();
         
         Button lookupBtn = findViewById(R.id.lookupBtn);
         Button applicationBtn = findViewById(R.id.applicationBtn); // CHANGED FROM htmlBtn
+        Button bulkBtn = findViewById(R.id.bulkBtn);
+        Button statsBtn = findViewById(R.id.statsBtn);
         
         lookupBtn.setOnClickListener(v -> {
             startActivity(new Intent(Home.this, MainActivity.class));
@@ -20,5 +28,39 @@ public class Home extends AppCompatActivity {
         applicationBtn.setOnClickListener(v -> {
             startActivity(new Intent(Home.this, HtmlActivity.class));
         });
+
+        bulkBtn.setOnClickListener(v -> {
+            startActivity(new Intent(Home.this, BulkLookupActivity.class));
+        });
+
+        statsBtn.setOnClickListener(v -> showNetworkStats());
+    }
+
+    // Everything the network layer has measured since the app started
+    private void showNetworkStats() {
+        String report = NetworkMetrics.report()
+                + "\n📦 Transfer:\n" + TransferStats.summary()
+                + "\n⏱️ Latency:\n" + LatencyTracker.summary()
+                + "\n🚦 Host limits:\n" + HostGovernor.summary()
+                + "\n🔥 Warm-up:\n" + ConnectionWarmer.summary()
+                + (FixtureRecorder.isRecording() ? "\n🎙️ Fixtures:\n" + FixtureRecorder.summary() : "");
+
+        new AlertDialog.Builder(this)
+                .setTitle("📊 Network stats")
+                .setMessage(report)
+                .setPositiveButton("💾 Save", (dialog, which) -> dumpNetworkStats())
+                .setNeutralButton("Reset", (dialog, which) -> NetworkMetrics.reset())
+                .setNegativeButton("Close", null)
+                .show();
+    }
+
+    private void dumpNetworkStats() {
+        File dir = getExternalFilesDir(null);
+        try {
+            File file = NetworkMetrics.dump(dir != null ? dir : getFilesDir());
+            Toast.makeText(this, "Saved: " + file.getAbsolutePath(), Toast.LENGTH_LONG).show();
+        } catch (Exception e) {
+            Toast.makeText(this, "Could not save stats: " + e.getMessage(), Toast.LENGTH_LONG).show();
+        }
     }
 }
\ No newline at end of file
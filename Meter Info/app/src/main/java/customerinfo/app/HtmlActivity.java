@@ -21,6 +21,7 @@ public class HtmlActivity extends AppCompatActivity {
     protected void onCreate(Bundle savedInstanceState) {
         super.onCreate(savedInstanceState);
         setContentView(R.layout.htmlactivity);
+        LookupCache.init(getFilesDir());
 
         webView = findViewById(R.id.webView);
         setupWebView();
@@ -0,0 +1,26 @@
+package customerinfo.app;
+
+import android.app.Application;
+
+import java.io.File;
+
+// Process-wide lookup settings, applied before any screen can start a lookup -
+// also when Android restores a screen other than Home after killing the process
+public class LookupApplication extends Application {
+
+    @Override
+    public void onCreate() {
+        super.onCreate();
+
+        // All four endpoints at one replay server (see :replay-server)
+        if (!BuildConfig.LOOKUP_BASE_URL.isEmpty()) {
+            NetworkHelper.setBaseUrlForAll(BuildConfig.LOOKUP_BASE_URL);
+        }
+
+        // adb pull /sdcard/Android/data/customerinfo.app/files/fixtures
+        if (BuildConfig.RECORD_FIXTURES) {
+            File dir = getExternalFilesDir("fixtures");
+            FixtureRecorder.start(dir != null ? dir : new File(getFilesDir(), "fixtures"));
+        }
+    }
+}
@@ -1,16 +1,42 @@
 package customerinfo.app;
 
+import android.content.ClipData;
+import android.content.ClipboardManager;
 import android.content.Context;
 import android.graphics.Color;
+import android.text.TextUtils;
 import android.util.TypedValue;
 import android.view.Gravity;
+import android.view.View;
 import android.view.ViewGroup;
 import android.widget.*;
 import android.graphics.drawable.GradientDrawable;
-import org.json.JSONArray;
-import org.json.JSONObject;
+
+import androidx.recyclerview.widget.LinearLayoutManager;
+import androidx.recyclerview.widget.RecyclerView;
+
+import java.util.List;
 
 public class UIHelper {
+    // Bill table rows: label and BillRow field
+    private static final String[][] BILL_FIELDS = {
+            {"Bill Month", "BILL_MONTH"},
+            {"Bill No", "BILL_NO"},
+            {"Consumption", "CONS_KWH_SR"},
+            {"CURRENT BILL", "CURRENT_BILL"},
+            {"Due Date", "INVOICE_DUE_DATE"},
+            {"Paid", "PAID_AMT"},
+            {"Pay Date", "RECEIPT_DATE"},
+            {"Balance", "BALANCE"}
+    };
+
+    private static final int CELL_HEIGHT_DP = 40;
+    private static final int COLUMN_WIDTH_DP = 112;
+    private static final int HEADER_COLOR = 0xFF2C3E50;        // Dark blue
+    private static final int FIELD_COLOR = 0xFFECF0F1;         // Light gray
+    private static final int ALTERNATE_ROW_COLOR = 0xFFF8F9FA;
+    private static final int BORDER_COLOR = 0xFFBDC3C7;
+
     private Context context;
     private TextView resultTextView;  // CHANGED FROM EditText TO TextView
     private LinearLayout tableContainer;
@@ -40,234 +66,155 @@ public class UIHelper {
         });
     }
 
-    // Display bill table with smooth scrolling
-    public void displayBillTable(JSONArray billInfo) {
+    // Display the whole bill history, one column per bill (newest first) with the field
+    // names fixed on the left. The bill columns are a horizontal RecyclerView: only the
+    // columns on screen have views, those views are reused while scrolling and a column's
+    // values are formatted when it is bound, so a long history costs no more to show
+    // than a short one.
+    public void displayBillTable(List<AccountRecords.BillRow> bills) {
         try {
-            if (billInfo.length() == 0) return;
+            if (bills.isEmpty()) return;
 
             tableContainer.removeAllViews();
 
-            // Create smooth scrolling container
-            HorizontalScrollView horizontalScroll = createHorizontalScrollView();
-            TableLayout tableLayout = createTableLayout();
-
-            // Define table structure
-            String[][] fields = {
-                    {"Bill Month", "BILL_MONTH"},
-                    {"Bill No", "BILL_NO"},
-                    {"Consumption", "CONS_KWH_SR"},
-                    {"CURRENT BILL", "CURRENT_BILL"},
-                    {"Due Date", "INVOICE_DUE_DATE"},
-                    {"Paid", "PAID_AMT"},
-                    {"Pay Date", "RECEIPT_DATE"},
-                    {"Balance", "BALANCE"}
-            };
+            LinearLayout table = new LinearLayout(context);
+            table.setOrientation(LinearLayout.HORIZONTAL);
+            table.setBackgroundColor(Color.WHITE);
+            table.setPadding(dpToPx(12), dpToPx(12), dpToPx(12), dpToPx(12));
 
-            int billCount = Math.min(billInfo.length(), 5);
-
-            // Build table
-            tableLayout.addView(createHeaderRow(billCount));
-
-            for (int rowIndex = 0; rowIndex < fields.length; rowIndex++) {
-                tableLayout.addView(createDataRow(fields[rowIndex], billInfo, billCount, rowIndex));
-
-            }
+            table.addView(createFieldColumn());
 
+            RecyclerView billColumns = new RecyclerView(context);
+            billColumns.setLayoutParams(new LinearLayout.LayoutParams(0, ViewGroup.LayoutParams.WRAP_CONTENT, 1f));
+            billColumns.setLayoutManager(new LinearLayoutManager(context, LinearLayoutManager.HORIZONTAL, false));
+            // Every column has the same size, so scrolling never triggers a relayout of the table
+            billColumns.setHasFixedSize(true);
+            billColumns.setHorizontalScrollBarEnabled(true);
+            billColumns.setAdapter(new BillColumnAdapter(bills));
+            table.addView(billColumns);
 
-            horizontalScroll.addView(tableLayout);
-            tableContainer.addView(horizontalScroll);
-            tableContainer.addView(createUsageHint());
+            tableContainer.addView(table);
+            tableContainer.addView(createUsageHint(bills.size()));
 
         } catch (Exception e) {
             showError("Error creating table: " + e.getMessage());
         }
     }
 
-    // Create smooth horizontal scroll view
-    private HorizontalScrollView createHorizontalScrollView() {
-        HorizontalScrollView scrollView = new HorizontalScrollView(context);
-        scrollView.setLayoutParams(new LinearLayout.LayoutParams(
-                ViewGroup.LayoutParams.MATCH_PARENT,
-                ViewGroup.LayoutParams.WRAP_CONTENT
-        ));
-        scrollView.setScrollbarFadingEnabled(true);
-        scrollView.setHorizontalScrollBarEnabled(true);
-        scrollView.setSmoothScrollingEnabled(true);
-        return scrollView;
-    }
-
-    // Create table layout with smooth properties
-    private TableLayout createTableLayout() {
-        TableLayout tableLayout = new TableLayout(context);
-        tableLayout.setLayoutParams(new TableLayout.LayoutParams(
-                TableLayout.LayoutParams.WRAP_CONTENT,
-                TableLayout.LayoutParams.WRAP_CONTENT
-        ));
-        tableLayout.setStretchAllColumns(true);
-        tableLayout.setShrinkAllColumns(true);
-        tableLayout.setBackgroundColor(Color.WHITE);
-        tableLayout.setPadding(dpToPx(12), dpToPx(12), dpToPx(12), dpToPx(12));
-        return tableLayout;
+    // Field names down the left, lined up with the rows of every bill column
+    private LinearLayout createFieldColumn() {
+        LinearLayout column = new LinearLayout(context);
+        column.setOrientation(LinearLayout.VERTICAL);
+
+        TextView header = createCell(Gravity.START, Color.WHITE, true, HEADER_COLOR, ViewGroup.LayoutParams.WRAP_CONTENT);
+        header.setText("BILL DETAILS");
+        column.addView(header);
+        for (String[] field : BILL_FIELDS) {
+            TextView cell = createCell(Gravity.START, Color.BLACK, false, FIELD_COLOR, ViewGroup.LayoutParams.WRAP_CONTENT);
+            cell.setText(field[0]);
+            column.addView(cell);
+        }
+        return column;
     }
 
-    // Create header row
-    private TableRow createHeaderRow(int billCount) {
-        TableRow headerRow = new TableRow(context);
-        headerRow.setBackgroundColor(Color.parseColor("#2c3e50"));
-
-        // Field column
-        headerRow.addView(createTableCell("BILL DETAILS", Gravity.START, Color.WHITE, true, true));
-
-        // Bill columns
-        for (int i = 0; i < billCount; i++) {
-            headerRow.addView(createTableCell("BILL " + (i + 1), Gravity.CENTER, Color.WHITE, true, false));
+    // One reusable column: the header plus one cell per field
+    private class BillColumnHolder extends RecyclerView.ViewHolder {
+        final TextView header;
+        final TextView[] values = new TextView[BILL_FIELDS.length];
+
+        BillColumnHolder(LinearLayout column) {
+            super(column);
+            header = createCell(Gravity.CENTER, Color.WHITE, true, HEADER_COLOR, dpToPx(COLUMN_WIDTH_DP));
+            column.addView(header);
+            for (int row = 0; row < values.length; row++) {
+                values[row] = createCell(Gravity.CENTER, Color.BLACK, false,
+                        row % 2 == 0 ? Color.WHITE : ALTERNATE_ROW_COLOR, dpToPx(COLUMN_WIDTH_DP));
+                column.addView(values[row]);
+            }
         }
-
-        return headerRow;
     }
 
-    // Create data row
-    private TableRow createDataRow(String[] field, JSONArray billInfo, int billCount, int rowIndex) {
-        TableRow dataRow = new TableRow(context);
+    private class BillColumnAdapter extends RecyclerView.Adapter<BillColumnHolder> {
+        private final List<AccountRecords.BillRow> bills;
 
-        // Alternate row colors
-        dataRow.setBackgroundColor(rowIndex % 2 == 0 ? Color.WHITE : Color.parseColor("#f8f9fa"));
-
-        String fieldName = field[0];
-        String fieldKey = field[1];
+        BillColumnAdapter(List<AccountRecords.BillRow> bills) {
+            this.bills = bills;
+        }
 
-        // Field name cell
-        dataRow.addView(createTableCell(fieldName, Gravity.START, Color.BLACK, false, true));
+        @Override
+        public BillColumnHolder onCreateViewHolder(ViewGroup parent, int viewType) {
+            LinearLayout column = new LinearLayout(context);
+            column.setOrientation(LinearLayout.VERTICAL);
+            column.setLayoutParams(new RecyclerView.LayoutParams(
+                    ViewGroup.LayoutParams.WRAP_CONTENT, ViewGroup.LayoutParams.WRAP_CONTENT));
+            return new BillColumnHolder(column);
+        }
 
-        // Data cells
-        for (int colIndex = 0; colIndex < billCount; colIndex++) {
-            try {
-                JSONObject bill = billInfo.getJSONObject(colIndex);
+        // Values are only formatted here, for the columns being shown
+        @Override
+        public void onBindViewHolder(BillColumnHolder holder, int position) {
+            AccountRecords.BillRow bill = bills.get(position);
+            holder.header.setText("BILL " + (position + 1));
+            for (int row = 0; row < BILL_FIELDS.length; row++) {
+                String fieldKey = BILL_FIELDS[row][1];
                 String value = getFormattedBillValue(bill, fieldKey);
 
                 // Handle empty pay dates
-                if (fieldKey.equals("RECEIPT_DATE")) {
-                    double paidAmount = bill.optDouble("PAID_AMT", 0);
-                    if (paidAmount <= 0) value = "—";
+                if (fieldKey.equals("RECEIPT_DATE") && bill.paidAmount <= 0) {
+                    value = "—";
                 }
-
-                TextView cell = createTableCell(value, Gravity.CENTER, Color.BLACK, false, false);
-
-                // Add smooth selection
-                setupCellSelection(cell, value);
-
-                dataRow.addView(cell);
-            } catch (Exception e) {
-                dataRow.addView(createTableCell("N/A", Gravity.CENTER, Color.GRAY, false, false));
+                holder.values[row].setText(value);
             }
         }
 
-        return dataRow;
+        @Override
+        public int getItemCount() {
+            return bills.size();
+        }
     }
 
-
-    // Create table cell with smooth appearance
-    private TextView createTableCell(String text, int gravity, int textColor, boolean isHeader, boolean isFieldColumn) {
+    // Fixed height, single line, so every column lines up with the field names
+    private TextView createCell(int gravity, int textColor, boolean isHeader, int fillColor, int width) {
         TextView textView = new TextView(context);
-        textView.setText(text != null ? text : "");
-        textView.setPadding(dpToPx(12), dpToPx(10), dpToPx(12), dpToPx(10));
-        textView.setGravity(gravity);
+        textView.setLayoutParams(new LinearLayout.LayoutParams(width, dpToPx(CELL_HEIGHT_DP)));
+        textView.setPadding(dpToPx(12), 0, dpToPx(12), 0);
+        textView.setGravity(gravity | Gravity.CENTER_VERTICAL);
         textView.setTextColor(textColor);
-
-        // Smooth text rendering
-        textView.setTextIsSelectable(true);
-        textView.setFocusable(true);
-        textView.setFocusableInTouchMode(true);
-        textView.setLongClickable(true);
-        textView.setCursorVisible(false);
-        textView.setSelectAllOnFocus(true);
+        textView.setSingleLine(true);
+        textView.setEllipsize(TextUtils.TruncateAt.END);
 
         if (isHeader) {
             textView.setTextSize(TypedValue.COMPLEX_UNIT_SP, 13);
             textView.setTypeface(textView.getTypeface(), android.graphics.Typeface.BOLD);
         } else {
             textView.setTextSize(TypedValue.COMPLEX_UNIT_SP, 12);
+            textView.setOnLongClickListener(copyCellValue);
         }
 
-        // Smooth background with rounded corners
         GradientDrawable background = new GradientDrawable();
         background.setCornerRadius(dpToPx(6));
-
-        if (isHeader) {
-            background.setColor(Color.parseColor("#2c3e50")); // Dark blue
-        } else if (isFieldColumn) {
-            background.setColor(Color.parseColor("#ecf0f1")); // Light gray
-        } else {
-            background.setColor(Color.TRANSPARENT);
-        }
-
-        background.setStroke(dpToPx(1), Color.parseColor("#bdc3c7")); // Border
+        background.setColor(fillColor);
+        background.setStroke(dpToPx(1), BORDER_COLOR); // Border
         textView.setBackground(background);
 
         return textView;
     }
 
-    // Add this method to UIHelper class
-    private void setupCellSelection(TextView cell, String value) {
-        // Enable text selection action mode
-        cell.setCustomSelectionActionModeCallback(new android.view.ActionMode.Callback() {
-            @Override
-            public boolean onCreateActionMode(android.view.ActionMode mode, android.view.Menu menu) {
-                // System will automatically add COPY, SELECT ALL, etc.
-                return true;
-            }
-
-            @Override
-            public boolean onPrepareActionMode(android.view.ActionMode mode, android.view.Menu menu) {
-                return true;
-            }
-
-            @Override
-            public boolean onActionItemClicked(android.view.ActionMode mode, android.view.MenuItem item) {
-                return false;
-            }
-
-            @Override
-            public void onDestroyActionMode(android.view.ActionMode mode) {
-                // Reset cell appearance when selection ends
-                resetCellAppearance(cell);
-            }
-        });
-
-        cell.setOnLongClickListener(v -> {
-            // Visual feedback
-            GradientDrawable selectedBg = new GradientDrawable();
-            selectedBg.setCornerRadius(dpToPx(6));
-            selectedBg.setColor(Color.parseColor("#d6eaf8"));
-            selectedBg.setStroke(dpToPx(2), Color.parseColor("#3498db"));
-            cell.setBackground(selectedBg);
-
-            // Select all text automatically
-            cell.setSelectAllOnFocus(true);
-            cell.requestFocus();
-
-            return false; // Let system handle the long press for selection
-        });
-
-        cell.setOnClickListener(v -> {
-            // Clear selection when tapping elsewhere
-            cell.clearFocus();
-            resetCellAppearance(cell);
-        });
-    }
-    // Reset cell to original appearance
-    private void resetCellAppearance(TextView cell) {
-        GradientDrawable originalBg = new GradientDrawable();
-        originalBg.setCornerRadius(dpToPx(6));
-        originalBg.setColor(Color.TRANSPARENT);
-        originalBg.setStroke(dpToPx(1), Color.parseColor("#bdc3c7"));
-        cell.setBackground(originalBg);
-    }
+    // One listener for every cell instead of a selection ActionMode per cell
+    private final View.OnLongClickListener copyCellValue = v -> {
+        CharSequence value = ((TextView) v).getText();
+        ClipboardManager clipboard = (ClipboardManager) context.getSystemService(Context.CLIPBOARD_SERVICE);
+        if (clipboard != null) {
+            clipboard.setPrimaryClip(ClipData.newPlainText("Bill value", value));
+            Toast.makeText(context, "📋 Copied: " + value, Toast.LENGTH_SHORT).show();
+        }
+        return true;
+    };
 
     // Create usage hint
-    private TextView createUsageHint() {
+    private TextView createUsageHint(int billCount) {
         TextView hint = new TextView(context);
-        hint.setText("💡 Long press any cell to copy text • Scroll horizontally for more data");
+        hint.setText("💡 Long press any cell to copy • Swipe sideways through all " + billCount + " bills");
         hint.setTextSize(TypedValue.COMPLEX_UNIT_SP, 11);
         hint.setTextColor(Color.parseColor("#7f8c8d"));
         hint.setGravity(Gravity.CENTER);
@@ -286,40 +233,47 @@ public class UIHelper {
     }
 
     // Format bill values (you can move this from MainActivity)
-    private String getFormattedBillValue(JSONObject bill, String fieldKey) {
-        try {
-            if (!bill.has(fieldKey) || bill.isNull(fieldKey)) {
-                return "—";
-            }
+    private String getFormattedBillValue(AccountRecords.BillRow bill, String fieldKey) {
+        switch (fieldKey) {
+            case "BILL_MONTH":
+                return formatBillMonth(bill.billMonth);
 
-            switch (fieldKey) {
-                case "BILL_MONTH":
-                    return formatBillMonth(bill.getString(fieldKey));
+            case "BILL_NO":
+                return bill.billNumber != null ? bill.billNumber : "—";
 
-                case "INVOICE_DUE_DATE":
-                case "RECEIPT_DATE":
-                    return formatDate(bill.getString(fieldKey));
+            case "INVOICE_DUE_DATE":
+                return formatDate(bill.dueDate);
 
-                case "CURRENT_BILL":
-                case "ARREAR_BILL":
-                case "TOTAL_BILL":
-                case "PAID_AMT":
-                case "BALANCE":
-                    double amount = bill.getDouble(fieldKey);
-                    return amount == 0 ? "—" : "৳" + String.format("%.0f", amount);
+            case "RECEIPT_DATE":
+                return formatDate(bill.receiptDate);
 
-                case "CONS_KWH_SR":
-                    double consumption = bill.getDouble(fieldKey);
-                    return consumption == 0 ? "—" : String.format("%.0f", consumption);
+            case "CURRENT_BILL":
+                return formatAmount(bill.currentBill);
 
-                default:
-                    return bill.getString(fieldKey);
-            }
-        } catch (Exception e) {
-            return "—";
+            case "ARREAR_BILL":
+                return formatAmount(bill.arrearBill);
+
+            case "TOTAL_BILL":
+                return formatAmount(bill.totalBill);
+
+            case "PAID_AMT":
+                return formatAmount(bill.paidAmount);
+
+            case "BALANCE":
+                return formatAmount(bill.balance);
+
+            case "CONS_KWH_SR":
+                return bill.consumption == 0 ? "—" : String.format("%.0f", bill.consumption);
+
+            default:
+                return "—";
         }
     }
 
+    private String formatAmount(double amount) {
+        return amount == 0 ? "—" : "৳" + String.format("%.0f", amount);
+    }
+
     // Date formatting helpers (move from MainActivity)
     private String formatBillMonth(String dateStr) {
         try {
@@ -8,6 +8,7 @@ def api1_lookup(meter_number):
 
         headers = {
             'Accept': 'text/x-component',
+            'Accept-Encoding': 'gzip, deflate',
             'Content-Type': 'text/plain;charset=UTF-8',
             'Next-Action': '29e85b2c55c9142822fe8da82a577612d9e58bb2',
             'Origin': 'http://web.bpdbprepaid.gov.bd',
@@ -16,14 +17,18 @@ def api1_lookup(meter_number):
         }
 
         request_data = '[{"meterNo":"' + clean_meter + '"}]'
-        response = requests.post(url, headers=headers, data=request_data, verify=False, timeout=30)
+        # stream=True: the body is decompressed while it is read, line by line
+        response = requests.post(url, headers=headers, data=request_data, verify=False, timeout=30, stream=True)
 
-        if response.status_code == 200:
-            response_text = response.text.split('\n')
-            for line in response_text:
-                if line.startswith('1:'):
-                    api1_data = json.loads(line[2:])
-                    return api1_data  # only api1_data, no consumer number
-        return {}
+        try:
+            if response.status_code == 200:
+                response.encoding = response.encoding or 'utf-8'
+                for line in response.iter_lines(decode_unicode=True):
+                    if line and line.startswith('1:'):
+                        api1_data = json.loads(line[2:])
+                        return api1_data  # only api1_data, no consumer number
+            return {}
+        finally:
+            response.close()
     except Exception as e:
         return {"error": str(e)}
@@ -0,0 +1,88 @@
+package customerinfo.app;
+
+import org.json.JSONObject;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.io.StringReader;
+import java.util.HashMap;
+import java.util.Map;
+
+// Turning parsed responses into account records and the merged customer view.
+// mergeSERVERData is memoized per account, so the merge benchmarks build a fresh
+// account every time; mergeReused measures the cached path on its own.
+@State(Scope.Benchmark)
+public class MergeBenchmark {
+
+    @Param({Payloads.SMALL, Payloads.TYPICAL, Payloads.HISTORY_60})
+    public String size;
+
+    private Server1StreamParser.Result server1Data;
+    private JSONObject server2Data;
+    private JSONObject server3Data;
+    private String server2Body;
+    private String server3Body;
+    private Map<String, Object> mergedResult;
+
+    @Setup
+    public void setUp() throws Exception {
+        Payloads.silenceLogs();
+        String customerNumber = Payloads.customerNumber(0);
+        server2Body = Payloads.server2(customerNumber, Payloads.billMonths(size), !Payloads.SMALL.equals(size));
+        server3Body = Payloads.server3(customerNumber);
+        server1Data = Server1StreamParser.parse(new StringReader(
+                Payloads.server1("012345678901", Payloads.rechargeCount(size))));
+        server2Data = StreamingJsonParser.parseServer2(new StringReader(server2Body));
+        server3Data = StreamingJsonParser.parseServer3(new StringReader(server3Body));
+
+        mergedResult = postpaidResult(customerNumber, server2Data, server3Data);
+        ServerDataHelper.mergeSERVERData(mergedResult);
+    }
+
+    @Benchmark
+    public AccountRecords.PrepaidAccount buildPrepaidAccount() {
+        return ServerDataHelper.buildPrepaidAccount("012345678901", server1Data);
+    }
+
+    // Includes the finalBalanceInfo breakdown and every bill row
+    @Benchmark
+    public AccountRecords.PostpaidAccount buildPostpaidAccount() {
+        return ServerDataHelper.buildPostpaidAccount(Payloads.customerNumber(0), server2Data, server3Data);
+    }
+
+    @Benchmark
+    public Map<String, Object> buildAndMerge() {
+        return ServerDataHelper.mergeSERVERData(postpaidResult(Payloads.customerNumber(0), server2Data, server3Data));
+    }
+
+    @Benchmark
+    public Map<String, Object> mergeReused() {
+        return ServerDataHelper.mergeSERVERData(mergedResult);
+    }
+
+    // What one bulk lookup row costs once the account has been merged for display
+    @Benchmark
+    public Map<String, String> excelRow() {
+        return ServerDataHelper.extractDataForExcel(mergedResult, "postpaid");
+    }
+
+    // Response bodies to merged view, as a single postpaid lookup does it
+    @Benchmark
+    public Map<String, Object> parseBuildAndMerge() throws Exception {
+        JSONObject server2 = StreamingJsonParser.parseServer2(new StringReader(server2Body));
+        JSONObject server3 = StreamingJsonParser.parseServer3(new StringReader(server3Body));
+        return ServerDataHelper.mergeSERVERData(postpaidResult(Payloads.customerNumber(0), server2, server3));
+    }
+
+    static Map<String, Object> postpaidResult(String customerNumber, JSONObject server2, JSONObject server3) {
+        Map<String, Object> result = new HashMap<>();
+        result.put("customer_number", customerNumber);
+        result.put("SERVER2_data", server2);
+        result.put("SERVER3_data", server3);
+        result.put("postpaid_account", ServerDataHelper.buildPostpaidAccount(customerNumber, server2, server3));
+        return result;
+    }
+}
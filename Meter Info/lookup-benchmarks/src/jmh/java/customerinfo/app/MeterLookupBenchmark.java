@@ -0,0 +1,59 @@
+package customerinfo.app;
+
+import org.json.JSONArray;
+import org.json.JSONObject;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+// A meter shared by several customers: the meter lookup, then parse, build, merge
+// and an Excel row for every customer on it, without the network
+@State(Scope.Benchmark)
+public class MeterLookupBenchmark {
+
+    @Param({"1", "4", "8"})
+    public int customers;
+
+    @Param({Payloads.TYPICAL, Payloads.HISTORY_60})
+    public String size;
+
+    private String meterBody;
+    private String[] server2Bodies;
+    private String[] server3Bodies;
+
+    @Setup
+    public void setUp() {
+        Payloads.silenceLogs();
+        meterBody = Payloads.meterLookup(customers);
+        server2Bodies = new String[customers];
+        server3Bodies = new String[customers];
+        for (int i = 0; i < customers; i++) {
+            server2Bodies[i] = Payloads.server2(Payloads.customerNumber(i), Payloads.billMonths(size), true);
+            server3Bodies[i] = Payloads.server3(Payloads.customerNumber(i));
+        }
+    }
+
+    @Benchmark
+    public List<Map<String, String>> lookupAllCustomers() throws Exception {
+        JSONObject meterData = StreamingJsonParser.parseMeterLookup(new StringReader(meterBody));
+        JSONArray content = meterData.getJSONArray("content");
+
+        List<Map<String, String>> rows = new ArrayList<>(content.length());
+        for (int i = 0; i < content.length(); i++) {
+            String customerNumber = content.getJSONObject(i).getString("CUSTOMER_NUM");
+            JSONObject server2 = StreamingJsonParser.parseServer2(new StringReader(server2Bodies[i]));
+            JSONObject server3 = StreamingJsonParser.parseServer3(new StringReader(server3Bodies[i]));
+            Map<String, Object> result = MergeBenchmark.postpaidResult(customerNumber, server2, server3);
+            ServerDataHelper.mergeSERVERData(result);
+            rows.add(ServerDataHelper.extractDataForExcel(result, "postpaid"));
+        }
+        return rows;
+    }
+}
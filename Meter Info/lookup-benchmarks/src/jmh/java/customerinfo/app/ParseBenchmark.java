@@ -0,0 +1,46 @@
+package customerinfo.app;
+
+import org.json.JSONObject;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.io.StringReader;
+
+// Parsing one server response body into what the lookup keeps of it
+@State(Scope.Benchmark)
+public class ParseBenchmark {
+
+    @Param({Payloads.SMALL, Payloads.TYPICAL, Payloads.HISTORY_60})
+    public String size;
+
+    private String server1Body;
+    private String server2Body;
+    private String server3Body;
+
+    @Setup
+    public void setUp() {
+        Payloads.silenceLogs();
+        server1Body = Payloads.server1("012345678901", Payloads.rechargeCount(size));
+        server2Body = Payloads.server2(Payloads.customerNumber(0), Payloads.billMonths(size),
+                !Payloads.SMALL.equals(size));
+        server3Body = Payloads.server3(Payloads.customerNumber(0));
+    }
+
+    @Benchmark
+    public Server1StreamParser.Result parseServer1() throws Exception {
+        return Server1StreamParser.parse(new StringReader(server1Body));
+    }
+
+    @Benchmark
+    public JSONObject parseServer2() throws Exception {
+        return StreamingJsonParser.parseServer2(new StringReader(server2Body));
+    }
+
+    @Benchmark
+    public JSONObject parseServer3() throws Exception {
+        return StreamingJsonParser.parseServer3(new StringReader(server3Body));
+    }
+}
@@ -0,0 +1,223 @@
+package customerinfo.app;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.util.Locale;
+
+// Synthetic server responses with the same shape as the live ones, so every
+// benchmark run parses exactly the same bytes.
+//   small     - 1 bill, 1 recharge, plain finalBalanceInfo
+//   typical   - 12 bills, 10 recharges, detailed finalBalanceInfo
+//   history60 - 60 bills (five years), 60 recharges, detailed finalBalanceInfo
+// Bill rows and orders carry a few extra fields the parsers have to skip, like the
+// real servers send.
+final class Payloads {
+
+    static final String SMALL = "small";
+    static final String TYPICAL = "typical";
+    static final String HISTORY_60 = "history60";
+
+    private Payloads() {
+    }
+
+    static int billMonths(String size) {
+        switch (size) {
+            case SMALL:
+                return 1;
+            case TYPICAL:
+                return 12;
+            case HISTORY_60:
+                return 60;
+            default:
+                throw new IllegalArgumentException("Unknown payload size: " + size);
+        }
+    }
+
+    static int rechargeCount(String size) {
+        switch (size) {
+            case SMALL:
+                return 1;
+            case TYPICAL:
+                return 10;
+            case HISTORY_60:
+                return 60;
+            default:
+                throw new IllegalArgumentException("Unknown payload size: " + size);
+        }
+    }
+
+    // SERVER 1 React Server Components stream: row 0 is the action id, row 1 the data
+    static String server1(String meterNumber, int recharges) {
+        StringBuilder sb = new StringBuilder();
+        sb.append("0:[\"$@1\",[\"nvIrYbiinJSZPzKb__tJP\",null]]\n");
+        sb.append("1:{\"mCustomerData\":{\"result\":{");
+        text(sb, "customerAccountNo", "41022384").append(',');
+        text(sb, "customerName", "MD. ABDUL KARIM").append(',');
+        text(sb, "customerAddress", "HOUSE 12, ROAD 4, BLOCK C, MIRPUR").append(',');
+        text(sb, "customerPhone", "01711000000").append(',');
+        text(sb, "division", "DHAKA").append(',');
+        text(sb, "sndDivision", "MIRPUR-2").append(',');
+        text(sb, "tariffCategory", "LT-A").append(',');
+        text(sb, "connectionCategory", "RESIDENTIAL").append(',');
+        text(sb, "accountType", "PREPAID").append(',');
+        text(sb, "meterType", "SINGLE PHASE").append(',');
+        text(sb, "sanctionLoad", "2").append(',');
+        text(sb, "meterNumber", meterNumber).append(',');
+        text(sb, "lastRechargeAmount", "1000").append(',');
+        text(sb, "lastRechargeTime", "2025-06-01 10:15:00").append(',');
+        text(sb, "installationDate", "2019-03-11").append(',');
+        text(sb, "lockStatus", "UNLOCKED").append(',');
+        text(sb, "totalRechargeThisMonth", "2000").append(',');
+        sb.append("\"customerNo\":\"41022384\"");
+        sb.append("}},\"mOrderData\":{\"result\":{\"orders\":{\"order\":[");
+        for (int i = 0; i < recharges; i++) {
+            if (i > 0) {
+                sb.append(',');
+            }
+            sb.append('{');
+            text(sb, "date", String.format(Locale.US, "2025-%02d-%02d 10:%02d:00", 12 - i % 12, 1 + i % 28, i % 60)).append(',');
+            text(sb, "orderNo", "ORD" + (9000000 + i)).append(',');
+            text(sb, "grossAmount", String.valueOf(500 + (i % 5) * 100)).append(',');
+            text(sb, "energyCost", String.format(Locale.US, "%.2f", 450.0 + (i % 5) * 95.5)).append(',');
+            text(sb, "operator", "bKash").append(',');
+            text(sb, "sequence", String.valueOf(i + 1)).append(',');
+            text(sb, "tokens", String.format(Locale.US, "%04d-%04d-%04d-%04d-%04d", i, i * 7 % 10000, i * 13 % 10000, 4321, 8765)).append(',');
+            sb.append("\"channel\":\"APP\",\"vendingStation\":{\"_text\":\"VS-01\"},\"status\":\"SUCCESS\"}");
+        }
+        sb.append("]}}}}\n");
+        return sb.toString();
+    }
+
+    // SERVER 2 CustomerInformation with customerInfo, finalBalanceInfo, balanceInfo and billInfo
+    static String server2(String customerNumber, int months, boolean detailedBalance) {
+        StringBuilder sb = new StringBuilder();
+        sb.append("{\"customerInfo\":[[{");
+        field(sb, "CUSTOMER_NUMBER", customerNumber).append(',');
+        field(sb, "CUSTOMER_NAME", "MD. ABDUL KARIM").append(',');
+        field(sb, "ADDRESS", "HOUSE 12, ROAD 4, BLOCK C, MIRPUR").append(',');
+        field(sb, "TARIFF", "LT-A").append(',');
+        field(sb, "LOCATION_CODE", "D12").append(',');
+        field(sb, "BILL_GROUP", "05").append(',');
+        field(sb, "BOOK", "221").append(',');
+        field(sb, "WALKING_SEQUENCE", "0041").append(',');
+        field(sb, "METER_NUM", "31040022").append(',');
+        field(sb, "METER_STATUS", "1").append(',');
+        field(sb, "METER_CONNECT_DATE", "2012-04-17T00:00:00").append(',');
+        field(sb, "DESCR", "DOMESTIC").append(',');
+        field(sb, "CONS_EXTG_NUM", "1122334").append(',');
+        field(sb, "USAGE_TYPE", "D").append(',');
+        field(sb, "START_BILL_CYCLE", "201204").append(',');
+        field(sb, "ZONE_CODE", "3").append(',');
+        field(sb, "FEEDER", "MIRPUR-11KV-04");
+        sb.append("}]],");
+
+        String balance = detailedBalance
+                ? "5230.75, PRN:4800.00, LPS:180.75, VAT:250.00, Current:1450.00, Arrear:3780.75"
+                : "5230.75";
+        field(sb, "finalBalanceInfo", balance).append(',');
+        sb.append("\"balanceInfo\":{\"Result\":[{\"BALANCE\":5230.75,\"CURRENT_BILL\":1450.0,")
+                .append("\"ARREAR_BILL\":3780.75,\"PAID_AMT\":0,\"LAST_PAY_DATE\":\"2025-05-12\"}]},");
+
+        sb.append("\"billInfo\":[");
+        for (int i = 0; i < months; i++) {
+            if (i > 0) {
+                sb.append(',');
+            }
+            int year = 2025 - i / 12;
+            int month = 12 - i % 12;
+            double current = 900 + (i * 37) % 800;
+            double arrear = i % 4 == 0 ? 0 : 120.5 * (i % 4);
+            sb.append('{');
+            field(sb, "BILL_MONTH", String.format(Locale.US, "%d-%02d-01T00:00:00", year, month)).append(',');
+            field(sb, "BILL_NO", String.valueOf(880000000L + i)).append(',');
+            sb.append("\"CONS_KWH_SR\":").append(150 + (i * 11) % 300).append(',');
+            sb.append("\"OPN_KWH_SR_RDNG\":").append(20000 + i * 150).append(',');
+            sb.append("\"CURRENT_BILL\":").append(current).append(',');
+            sb.append("\"ARREAR_BILL\":").append(arrear).append(',');
+            sb.append("\"TOTAL_BILL\":").append(current + arrear).append(',');
+            field(sb, "INVOICE_DUE_DATE", String.format(Locale.US, "%d-%02d-20T00:00:00", year, month)).append(',');
+            sb.append("\"PAID_AMT\":").append(i == 0 ? 0 : current + arrear).append(',');
+            if (i == 0) {
+                sb.append("\"RECEIPT_DATE\":null,");
+            } else {
+                field(sb, "RECEIPT_DATE", String.format(Locale.US, "%d-%02d-15T00:00:00", year, month)).append(',');
+            }
+            sb.append("\"BALANCE\":").append(i == 0 ? current + arrear : 0).append(',');
+            sb.append("\"CLS_KWH_SR_RDNG\":").append(20150 + i * 150).append(',');
+            field(sb, "BILL_STATUS", "F").append(',');
+            field(sb, "METER_RENT", "10.00");
+            sb.append('}');
+        }
+        sb.append("]}");
+        return sb.toString();
+    }
+
+    // SERVER 3 get-pre-customer_info: one flat object
+    static String server3(String customerNumber) {
+        StringBuilder sb = new StringBuilder("{");
+        field(sb, "customerNumber", customerNumber).append(',');
+        field(sb, "customerName", "MD. ABDUL KARIM").append(',');
+        field(sb, "customerAddr", "HOUSE 12, ROAD 4, BLOCK C, MIRPUR").append(',');
+        field(sb, "fatherName", "LATE ABDUL HAMID").append(',');
+        field(sb, "locationCode", "D12").append(',');
+        field(sb, "areaCode", "0412").append(',');
+        field(sb, "bookNumber", "221").append(',');
+        field(sb, "billGroup", "05").append(',');
+        field(sb, "meterNum", "31040022").append(',');
+        field(sb, "meterConditionDesc", "OK").append(',');
+        field(sb, "sanctionedLoad", "3").append(',');
+        field(sb, "tariffDesc", "LT-A DOMESTIC").append(',');
+        field(sb, "walkOrder", "0041").append(',');
+        field(sb, "arrearAmount", "3780.75").append(',');
+        field(sb, "lastBillReadingSr", "27350").append(',');
+        field(sb, "lastBillReadingOfPk", "0").append(',');
+        field(sb, "lastBillReadingPk", "0").append(',');
+        field(sb, "nidNumber", "1990123456789").append(',');
+        field(sb, "mobileNo", "01711000000");
+        sb.append('}');
+        return sb.toString();
+    }
+
+    // GetCustomerMeterbyMeterNo with one entry per customer on the meter
+    static String meterLookup(int customers) {
+        StringBuilder sb = new StringBuilder("{\"status\":1,\"content\":[");
+        for (int i = 0; i < customers; i++) {
+            if (i > 0) {
+                sb.append(',');
+            }
+            sb.append('{');
+            field(sb, "CUSTOMER_NUM", customerNumber(i)).append(',');
+            field(sb, "CUSTOMER_NAME", "CUSTOMER " + (i + 1)).append(',');
+            field(sb, "METER_NUM", "31040022").append(',');
+            field(sb, "LOCATION_CODE", "D12");
+            sb.append('}');
+        }
+        sb.append("],\"message\":\"OK\"}");
+        return sb.toString();
+    }
+
+    static String customerNumber(int index) {
+        return String.valueOf(41022384 + index);
+    }
+
+    // The lookup code logs every step; keep that out of the measurement
+    static void silenceLogs() {
+        System.setOut(new PrintStream(new OutputStream() {
+            @Override
+            public void write(int b) {
+            }
+
+            @Override
+            public void write(byte[] b, int off, int len) {
+            }
+        }));
+    }
+
+    private static StringBuilder text(StringBuilder sb, String name, String value) {
+        return sb.append('"').append(name).append("\":{\"_text\":\"").append(value).append("\"}");
+    }
+
+    private static StringBuilder field(StringBuilder sb, String name, String value) {
+        return sb.append('"').append(name).append("\":\"").append(value).append('"');
+    }
+}
@@ -0,0 +1,256 @@
+package customerinfo.app;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+// Typed, immutable views of one lookup, built once by ServerDataHelper when the server
+// responses arrive. Display, Excel and the application form all read these instead of
+// re-parsing and re-cleaning the raw JSON.
+// Customer field maps use the display labels ("Customer Name", "Meter Number", ...)
+// and never contain empty or "N/A" values.
+public class AccountRecords {
+
+    // How many recharges display and the form take from the history; 0 = the whole history
+    private static volatile int rechargeHistoryLimit = 0;
+
+    private AccountRecords() {
+    }
+
+    public static void setRechargeHistoryLimit(int limit) {
+        rechargeHistoryLimit = Math.max(0, limit);
+    }
+
+    public static int getRechargeHistoryLimit() {
+        return rechargeHistoryLimit;
+    }
+
+    // One recharge order from SERVER 1; fields are "N/A" when the server left them empty
+    public static class RechargeTransaction {
+        public final String date;
+        public final String orderNumber;
+        public final String grossAmount;
+        public final String energyCost;
+        public final String operator;
+        public final String sequence;
+        public final String tokens;
+
+        RechargeTransaction(String date, String orderNumber, String grossAmount, String energyCost,
+                            String operator, String sequence, String tokens) {
+            this.date = date;
+            this.orderNumber = orderNumber;
+            this.grossAmount = grossAmount;
+            this.energyCost = energyCost;
+            this.operator = operator;
+            this.sequence = sequence;
+            this.tokens = tokens;
+        }
+    }
+
+    // SERVER 1 data of a prepaid meter
+    public static class PrepaidAccount {
+        public final String meterNumber;
+        // null if SERVER 1 didn't send one
+        public final String consumerNumber;
+        public final Map<String, String> customerInfo;
+        // Complete history, newest first, as SERVER 1 sends it
+        public final List<RechargeTransaction> transactions;
+
+        PrepaidAccount(String meterNumber, String consumerNumber, Map<String, String> customerInfo,
+                       List<RechargeTransaction> transactions) {
+            this.meterNumber = meterNumber;
+            this.consumerNumber = consumerNumber;
+            this.customerInfo = Collections.unmodifiableMap(customerInfo);
+            this.transactions = Collections.unmodifiableList(transactions);
+        }
+
+        public boolean isEmpty() {
+            return customerInfo.isEmpty() && transactions.isEmpty();
+        }
+
+        // One page of the history, newest first; limit <= 0 means everything from offset on.
+        // A view of the history, nothing is copied.
+        public List<RechargeTransaction> getTransactions(int offset, int limit) {
+            int from = Math.min(Math.max(0, offset), transactions.size());
+            int to = limit > 0 ? Math.min(transactions.size(), from + limit) : transactions.size();
+            return transactions.subList(from, to);
+        }
+
+        // Newest transactions up to the configured recharge history limit
+        public List<RechargeTransaction> getRecentTransactions() {
+            return getTransactions(0, rechargeHistoryLimit);
+        }
+
+        // Customer field, or "" when missing
+        public String get(String label) {
+            return valueOf(customerInfo, label);
+        }
+    }
+
+    // Outstanding balance, with whatever breakdown the server sent.
+    // Amounts are kept as the server formatted them; null when not sent.
+    public static class BalanceBreakdown {
+        // Where the numbers came from
+        public static final String FINAL_BALANCE_INFO = "finalBalanceInfo";
+        public static final String BALANCE_INFO = "balanceInfo";
+        public static final String SERVER3_ARREAR = "arrearAmount";
+
+        public final String source;
+        public final String totalBalance;
+        public final String arrearAmount;
+        public final String principal;
+        public final String lps;
+        public final String vat;
+        public final String currentBill;
+        public final String paidAmount;
+
+        BalanceBreakdown(String source, String totalBalance, String arrearAmount, String principal,
+                         String lps, String vat, String currentBill, String paidAmount) {
+            this.source = source;
+            this.totalBalance = totalBalance;
+            this.arrearAmount = arrearAmount;
+            this.principal = principal;
+            this.lps = lps;
+            this.vat = vat;
+            this.currentBill = currentBill;
+            this.paidAmount = paidAmount;
+        }
+
+        // Display labels -> amounts, only for the parts that were sent
+        public Map<String, String> toMap() {
+            Map<String, String> map = new LinkedHashMap<>();
+            putIfSet(map, "Total Balance", totalBalance);
+            putIfSet(map, "Arrear Amount", arrearAmount);
+            putIfSet(map, "PRN", principal);
+            putIfSet(map, "LPS", lps);
+            putIfSet(map, "VAT", vat);
+            putIfSet(map, "Current Bill", currentBill);
+            putIfSet(map, "Paid Amount", paidAmount);
+            return Collections.unmodifiableMap(map);
+        }
+
+        private static void putIfSet(Map<String, String> map, String label, String value) {
+            if (value != null) {
+                map.put(label, value);
+            }
+        }
+    }
+
+    // One month of SERVER 2 billInfo. Strings are null and amounts 0 when not sent.
+    public static class BillRow {
+        // Raw BILL_MONTH, e.g. "2024-05-01T00:00:00"
+        public final String billMonth;
+        // e.g. "May-2024"
+        public final String billMonthLabel;
+        public final String billNumber;
+        public final double consumption;
+        public final double currentBill;
+        public final double arrearBill;
+        public final double totalBill;
+        public final double paidAmount;
+        public final double balance;
+        public final String dueDate;
+        public final String receiptDate;
+
+        BillRow(String billMonth, String billMonthLabel, String billNumber, double consumption,
+                double currentBill, double arrearBill, double totalBill, double paidAmount, double balance,
+                String dueDate, String receiptDate) {
+            this.billMonth = billMonth;
+            this.billMonthLabel = billMonthLabel;
+            this.billNumber = billNumber;
+            this.consumption = consumption;
+            this.currentBill = currentBill;
+            this.arrearBill = arrearBill;
+            this.totalBill = totalBill;
+            this.paidAmount = paidAmount;
+            this.balance = balance;
+            this.dueDate = dueDate;
+            this.receiptDate = receiptDate;
+        }
+
+        // Same bill with the same amounts, e.g. one SERVER 2 response read twice
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof BillRow)) {
+                return false;
+            }
+            BillRow other = (BillRow) o;
+            return Double.compare(consumption, other.consumption) == 0
+                    && Double.compare(currentBill, other.currentBill) == 0
+                    && Double.compare(arrearBill, other.arrearBill) == 0
+                    && Double.compare(totalBill, other.totalBill) == 0
+                    && Double.compare(paidAmount, other.paidAmount) == 0
+                    && Double.compare(balance, other.balance) == 0
+                    && Objects.equals(billMonth, other.billMonth)
+                    && Objects.equals(billMonthLabel, other.billMonthLabel)
+                    && Objects.equals(billNumber, other.billNumber)
+                    && Objects.equals(dueDate, other.dueDate)
+                    && Objects.equals(receiptDate, other.receiptDate);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(billMonth, billNumber, totalBill, paidAmount, balance);
+        }
+    }
+
+    // SERVER 2 + SERVER 3 data of one customer number, each side kept as it was sent.
+    // A side that failed or wasn't fetched is null.
+    public static class PostpaidAccount {
+        public final String customerNumber;
+        public final Map<String, String> server2Info;
+        public final Map<String, String> server3Info;
+        // SERVER 2 balance, with breakdown when available
+        public final BalanceBreakdown balance;
+        // SERVER 3 arrear amount, used when SERVER 2 has no balance
+        public final BalanceBreakdown server3Balance;
+        // Newest first, as SERVER 2 sends them
+        public final List<BillRow> bills;
+
+        PostpaidAccount(String customerNumber, Map<String, String> server2Info, Map<String, String> server3Info,
+                        BalanceBreakdown balance, BalanceBreakdown server3Balance, List<BillRow> bills) {
+            this.customerNumber = customerNumber;
+            this.server2Info = server2Info != null ? Collections.unmodifiableMap(server2Info) : null;
+            this.server3Info = server3Info != null ? Collections.unmodifiableMap(server3Info) : null;
+            this.balance = balance;
+            this.server3Balance = server3Balance;
+            this.bills = Collections.unmodifiableList(bills);
+        }
+
+        public boolean hasServer2() {
+            return server2Info != null;
+        }
+
+        public boolean hasServer3() {
+            return server3Info != null;
+        }
+
+        // SERVER 2 balance if it sent one, otherwise SERVER 3's, otherwise null
+        public BalanceBreakdown getBalance() {
+            return balance != null ? balance : server3Balance;
+        }
+
+        // SERVER 2 customer field, or "" when missing
+        public String getServer2(String label) {
+            return valueOf(server2Info, label);
+        }
+
+        // SERVER 3 customer field, or "" when missing
+        public String getServer3(String label) {
+            return valueOf(server3Info, label);
+        }
+    }
+
+    private static String valueOf(Map<String, String> fields, String label) {
+        if (fields == null) {
+            return "";
+        }
+        String value = fields.get(label);
+        return value == null || value.equals("null") ? "" : value;
+    }
+}
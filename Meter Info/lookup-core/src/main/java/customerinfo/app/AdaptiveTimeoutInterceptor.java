@@ -0,0 +1,38 @@
+package customerinfo.app;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import okhttp3.Interceptor;
+import okhttp3.Request;
+import okhttp3.Response;
+
+// Sets each call's connect/read timeouts from the server's observed latency
+// and records how long the server took to answer.
+public class AdaptiveTimeoutInterceptor implements Interceptor {
+
+    @Override
+    public Response intercept(Chain chain) throws IOException {
+        Request request = chain.request();
+        String server = request.tag(String.class);
+        if (server == null) {
+            return chain.proceed(request);
+        }
+
+        LatencyTracker tracker = LatencyTracker.forServer(server);
+        int connectTimeout = tracker.getConnectTimeoutMs(chain.connectTimeoutMillis());
+        int readTimeout = tracker.getReadTimeoutMs(chain.readTimeoutMillis());
+
+        long start = System.nanoTime();
+        Response response = chain
+                .withConnectTimeout(connectTimeout, TimeUnit.MILLISECONDS)
+                .withReadTimeout(readTimeout, TimeUnit.MILLISECONDS)
+                .proceed(request);
+
+        // Server errors often come back fast and would drag the percentiles down
+        if (response.code() < 500) {
+            tracker.record(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+        }
+        return response;
+    }
+}
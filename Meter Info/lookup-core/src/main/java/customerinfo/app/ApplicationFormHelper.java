@@ -0,0 +1,256 @@
+package customerinfo.app;
+
+import java.util.*;
+
+public class ApplicationFormHelper {
+
+    private String currentType;
+
+    public ApplicationFormHelper() {
+        // Empty constructor
+    }
+
+    public Map<String, Object> fetchDataForApplicationForm(String inputNumber, String type) {
+        Map<String, Object> result = new HashMap<>();
+        this.currentType = type;
+
+        try {
+            System.out.println("🔍 APPLICATION FORM HELPER: Fetching " + type + " data for: " + inputNumber);
+
+            if ("prepaid".equals(type)) {
+                result = fetchPrepaidDataForApplication(inputNumber);
+            } else {
+                result = fetchPostpaidDataForApplication(inputNumber);
+            }
+
+        } catch (Exception e) {
+            System.out.println("❌ APPLICATION FORM HELPER ERROR: " + e.getMessage());
+            result.put("error", "Data fetch failed: " + e.getMessage());
+        }
+
+        return result;
+    }
+
+    private Map<String, Object> fetchPrepaidDataForApplication(String meterNumber) {
+        Map<String, Object> result = new HashMap<>();
+
+        try {
+            Map<String, Object> server1Result = LookupHelper.SERVER1Lookup(meterNumber);
+            String consumerNumber = (String) server1Result.get("consumer_number");
+
+            if (consumerNumber == null || server1Result.containsKey("error")) {
+                result.put("error", "মিটার নং ভুল বা ডেটা পাওয়া যায়নি");
+                return result;
+            }
+
+            Map<String, Object> server3Result = LookupHelper.SERVER3Lookup(consumerNumber);
+
+            if (server3Result.containsKey("error")) {
+                result.put("error", "গ্রাহক তথ্য পাওয়া যায়নি: " + server3Result.get("error"));
+                return result;
+            }
+
+            extractFormData(server3Result, server1Result, result, meterNumber, "prepaid");
+
+        } catch (Exception e) {
+            result.put("error", "ডেটা প্রসেসিং ব্যর্থ: " + e.getMessage());
+        }
+
+        return result;
+    }
+
+    private Map<String, Object> fetchPostpaidDataForApplication(String customerNumber) {
+        Map<String, Object> result = new HashMap<>();
+
+        try {
+            Map<String, Object> server3Result = LookupHelper.SERVER3Lookup(customerNumber);
+
+            if (server3Result.containsKey("error")) {
+                result.put("error", "গ্রাহক তথ্য পাওয়া যায়নি: " + server3Result.get("error"));
+                return result;
+            }
+
+            extractFormData(server3Result, null, result, customerNumber, "postpaid");
+
+        } catch (Exception e) {
+            result.put("error", "ডেটা প্রসেসিং ব্যর্থ: " + e.getMessage());
+        }
+
+        return result;
+    }
+
+    private void extractFormData(Map<String, Object> server3Result, 
+                                Map<String, Object> server1Result, 
+                                Map<String, Object> result, 
+                                String inputNumber,
+                                String type) {
+        try {
+            // Built once by LookupHelper when the responses arrived
+            Object accountObj = server3Result.get("postpaid_account");
+            AccountRecords.PostpaidAccount account = accountObj instanceof AccountRecords.PostpaidAccount ?
+                    (AccountRecords.PostpaidAccount) accountObj : null;
+            Object prepaidObj = server1Result != null ? server1Result.get("prepaid_account") : null;
+            AccountRecords.PrepaidAccount prepaidAccount = prepaidObj instanceof AccountRecords.PrepaidAccount ?
+                    (AccountRecords.PrepaidAccount) prepaidObj : null;
+
+            extractCustomerInfo(account, prepaidAccount, result, inputNumber, type);
+            extractBalanceInfo(account, result);
+
+            if ("prepaid".equals(type) && prepaidAccount != null) {
+                extractRechargeHistory(prepaidAccount, result);
+            } else {
+                result.put("recharges", new ArrayList<>());
+            }
+
+        } catch (Exception e) {
+            System.out.println("❌ Error extracting form data: " + e.getMessage());
+            result.put("error", "ফর্ম ডেটা এক্সট্রাক্ট ব্যর্থ: " + e.getMessage());
+        }
+    }
+
+    private void extractCustomerInfo(AccountRecords.PostpaidAccount account,
+                                   AccountRecords.PrepaidAccount prepaidAccount,
+                                   Map<String, Object> result, 
+                                   String inputNumber, String type) {
+        Map<String, String> customerInfo = new HashMap<>();
+
+        // FOR PREPAID: Always get customer info from SERVER1 first
+        if ("prepaid".equals(type) && prepaidAccount != null) {
+            customerInfo.put("customer_name", prepaidAccount.get("Name"));
+            customerInfo.put("address", prepaidAccount.get("Address"));
+            customerInfo.put("mobile_no", prepaidAccount.get("Phone"));
+            customerInfo.put("consumer_no", prepaidAccount.get("Consumer Number"));
+            System.out.println("✅ Extracted customer info from SERVER1");
+
+            // Supplement with SERVER3 data for ALL prepaid customers
+            if (account != null && account.hasServer3()) {
+                String server3Name = account.getServer3("Customer Name");
+                if (!server3Name.isEmpty()) {
+                    System.out.println("✅ PREPAID: SERVER3 data available");
+                    putIfEmpty(customerInfo, "customer_name", server3Name);
+                    putIfEmpty(customerInfo, "father_name", account.getServer3("Father Name"));
+                    putIfEmpty(customerInfo, "address", account.getServer3("Customer Address"));
+                    putIfEmpty(customerInfo, "consumer_no", account.getServer3("Customer Number"));
+                } else {
+                    System.out.println("❌ PREPAID: SERVER3 returned empty data");
+                }
+            }
+        }
+
+        // FOR POSTPAID: Use SERVER3 data if available, otherwise try SERVER2
+        if ("postpaid".equals(type)) {
+            System.out.println("🔍 POSTPAID: Extracting customer info");
+
+            if (account != null && !account.getServer3("Customer Name").isEmpty()) {
+                System.out.println("✅ POSTPAID: Using SERVER3 data");
+                customerInfo.put("customer_name", account.getServer3("Customer Name"));
+                customerInfo.put("father_name", account.getServer3("Father Name"));
+                customerInfo.put("address", account.getServer3("Customer Address"));
+                customerInfo.put("consumer_no", account.getServer3("Customer Number"));
+                customerInfo.put("meter_no", account.getServer3("Meter Number"));
+            }
+
+            // If SERVER3 failed, try SERVER2 as fallback
+            if (isEmpty(customerInfo.get("customer_name")) && account != null && account.hasServer2()) {
+                System.out.println("🔍 POSTPAID: Trying SERVER2 as fallback");
+                putIfEmpty(customerInfo, "customer_name", account.getServer2("Customer Name"));
+                putIfEmpty(customerInfo, "address", account.getServer2("Address"));
+                putIfEmpty(customerInfo, "meter_no", account.getServer2("Meter Number"));
+                putIfEmpty(customerInfo, "consumer_no", account.getServer2("Customer Number"));
+            }
+
+            // Final fallback - at least set consumer number
+            putIfEmpty(customerInfo, "consumer_no", inputNumber);
+        }
+
+        // Always set meter number for prepaid
+        if ("prepaid".equals(type)) {
+            customerInfo.put("meter_no", inputNumber);
+        }
+
+        result.putAll(customerInfo);
+    }
+
+    private void putIfEmpty(Map<String, String> customerInfo, String key, String value) {
+        if (isEmpty(customerInfo.get(key))) {
+            customerInfo.put(key, value);
+        }
+    }
+
+    private boolean isEmpty(String value) {
+        return value == null || value.isEmpty();
+    }
+
+    private void extractBalanceInfo(AccountRecords.PostpaidAccount account, Map<String, Object> result) {
+        String arrearAmount = "";
+
+        // CHANGED: If no balance found, return empty so HTML shows "কোনো বকেয়া নেই"
+        AccountRecords.BalanceBreakdown balance = account != null ? account.balance : null;
+        if (balance != null) {
+            if (AccountRecords.BalanceBreakdown.BALANCE_INFO.equals(balance.source)) {
+                try {
+                    double totalBalance = Double.parseDouble(balance.totalBalance);
+                    if (totalBalance > 0) {
+                        arrearAmount = String.format("%.0f", totalBalance);
+                    }
+                } catch (NumberFormatException e) {
+                    System.out.println("❌ Error parsing balanceInfo: " + e.getMessage());
+                }
+            } else if (isValidValue(balance.totalBalance)) {
+                arrearAmount = balance.totalBalance;
+            }
+        }
+
+        if (arrearAmount.isEmpty() && account != null && account.server3Balance != null) {
+            String server3Arrear = account.server3Balance.arrearAmount;
+            if (isValidValue(server3Arrear) && !server3Arrear.equals("0.00")) {
+                arrearAmount = server3Arrear;
+            }
+        }
+
+        // CHANGED: Don't set empty string - let HTML handle "কোনো বকেয়া নেই"
+        // If arrearAmount is empty, the HTML will show the default "________" 
+        // which you can change to "কোনো বকেয়া নেই" in your JavaScript
+
+        result.put("arrear", arrearAmount);
+    }
+
+    private void extractRechargeHistory(AccountRecords.PrepaidAccount prepaidAccount, Map<String, Object> result) {
+        List<Map<String, String>> recharges = new ArrayList<>();
+
+        for (AccountRecords.RechargeTransaction transaction : prepaidAccount.getRecentTransactions()) {
+            Map<String, String> recharge = new HashMap<>();
+            recharge.put("Date", formatDateForDisplay(transaction.date));
+            recharge.put("Amount", formatAmountForDisplay(transaction.grossAmount));
+            recharges.add(recharge);
+        }
+
+        result.put("recharges", recharges);
+    }
+
+    private String formatDateForDisplay(String date) {
+        if (date == null || date.equals("N/A") || date.isEmpty()) {
+            return "";
+        }
+        return date.replace("T", " ").split(" ")[0];
+    }
+
+    private String formatAmountForDisplay(String amount) {
+        if (amount == null || amount.equals("N/A") || amount.isEmpty()) {
+            return "";
+        }
+        return "৳" + amount;
+    }
+
+    private boolean isValidValue(String value) {
+        if (value == null) return false;
+
+        String trimmed = value.trim();
+        return !trimmed.isEmpty() &&
+               !trimmed.equals("N/A") &&
+               !trimmed.equals("null") &&
+               !trimmed.equals("{}") &&
+               !trimmed.equals("undefined") &&
+               !trimmed.equals("0");
+    }
+}
\ No newline at end of file
@@ -0,0 +1,330 @@
+package customerinfo.app;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+// Looks up a list of numbers through the normal lookup workflows, a few at a time.
+// Items flow through a bounded pool, so the next number starts as soon as one finishes
+// instead of waiting for a whole batch. Every item gets its own LookupContext (deadline,
+// retry budget, cancellation); results stay in input order for the Excel export,
+// and only the failed items are run again by retryFailed().
+public class BulkLookupRunner {
+
+    public static final int DEFAULT_CONCURRENCY = 3;
+    // Same hard limit a single lookup from MainActivity gets
+    private static final long ITEM_DEADLINE_MS = 60000;
+
+    public static final String PENDING = "pending";
+    public static final String RUNNING = "running";
+    public static final String DONE = "done";
+    public static final String FAILED = "failed";
+
+    // Called on the bulk worker threads
+    public interface Listener {
+        void onItemFinished(Item item, Progress progress);
+
+        void onComplete(Progress progress);
+    }
+
+    // One input number and its lookup result
+    public static class Item {
+        public final int index;
+        public final String number;
+        volatile String status = PENDING;
+        volatile Map<String, Object> result;
+        volatile String error;
+        volatile long durationMs;
+
+        Item(int index, String number) {
+            this.index = index;
+            this.number = number;
+        }
+
+        public String getStatus() {
+            return status;
+        }
+
+        public Map<String, Object> getResult() {
+            return result;
+        }
+
+        public String getError() {
+            return error;
+        }
+
+        public long getDurationMs() {
+            return durationMs;
+        }
+    }
+
+    // Snapshot of one run
+    public static class Progress {
+        public final int total;
+        public final int completed;
+        public final int failed;
+        public final long elapsedMs;
+
+        Progress(int total, int completed, int failed, long elapsedMs) {
+            this.total = total;
+            this.completed = completed;
+            this.failed = failed;
+            this.elapsedMs = elapsedMs;
+        }
+
+        public int getFinished() {
+            return completed + failed;
+        }
+
+        public double getItemsPerMinute() {
+            return elapsedMs > 0 ? getFinished() * 60000.0 / elapsedMs : 0;
+        }
+
+        // Estimated time left at the current rate, -1 until something has finished
+        public long getEtaMs() {
+            int finished = getFinished();
+            if (finished == 0) {
+                return -1;
+            }
+            return (total - finished) * elapsedMs / finished;
+        }
+
+        public String format() {
+            String line = String.format(Locale.US, "%d/%d done, %d failed, %.1f/min",
+                    getFinished(), total, failed, getItemsPerMinute());
+            long eta = getEtaMs();
+            if (eta > 0 && getFinished() < total) {
+                line += ", ~" + (eta / 1000 + 1) + " s left";
+            }
+            return line;
+        }
+    }
+
+    private final String type;
+    private final String subType;
+    private final List<Item> items = new ArrayList<>();
+    private final ThreadPoolExecutor pool;
+    private final List<LookupContext> activeContexts = new ArrayList<>();
+
+    private Listener listener;
+    private List<Item> runItems = Collections.emptyList();
+    private int runId;
+    private long runStartNanos;
+    private long runEndNanos;
+    private int runCompleted;
+    private int runFailed;
+    private boolean running;
+    private boolean cancelled;
+
+    // type/subType as in LookupHelper.fetchDataBasedOnType
+    public BulkLookupRunner(List<String> numbers, String type, String subType, int concurrency) {
+        this.type = type;
+        this.subType = subType;
+        for (int i = 0; i < numbers.size(); i++) {
+            items.add(new Item(i, numbers.get(i)));
+        }
+        this.pool = LookupExecutors.newPool("bulk", clamp(concurrency));
+    }
+
+    // Items do their SERVER 2/3 work on the shared customer and server pools, so more
+    // items than the customer pool has threads would only queue there
+    public static int getMaxConcurrency() {
+        return LookupExecutors.getCustomerParallelism();
+    }
+
+    private static int clamp(int concurrency) {
+        return Math.max(1, Math.min(getMaxConcurrency(), concurrency));
+    }
+
+    // Can be changed while a run is going; applies as soon as a slot frees up
+    public synchronized void setConcurrency(int concurrency) {
+        int threads = clamp(concurrency);
+        // Core size must never exceed max size, so the order depends on the direction
+        if (threads > pool.getMaximumPoolSize()) {
+            pool.setMaximumPoolSize(threads);
+            pool.setCorePoolSize(threads);
+        } else {
+            pool.setCorePoolSize(threads);
+            pool.setMaximumPoolSize(threads);
+        }
+    }
+
+    public int getConcurrency() {
+        return pool.getMaximumPoolSize();
+    }
+
+    public List<Item> getItems() {
+        return Collections.unmodifiableList(items);
+    }
+
+    public synchronized boolean isRunning() {
+        return running;
+    }
+
+    public synchronized int getFailedCount() {
+        int failed = 0;
+        for (Item item : items) {
+            if (FAILED.equals(item.status)) {
+                failed++;
+            }
+        }
+        return failed;
+    }
+
+    // Look up every number
+    public synchronized void start(Listener listener) {
+        run(new ArrayList<>(items), listener);
+    }
+
+    // Look up only the numbers that failed last time
+    public synchronized boolean retryFailed(Listener listener) {
+        List<Item> failed = new ArrayList<>();
+        for (Item item : items) {
+            if (FAILED.equals(item.status)) {
+                failed.add(item);
+            }
+        }
+        if (failed.isEmpty()) {
+            return false;
+        }
+        run(failed, listener);
+        return true;
+    }
+
+    private void run(List<Item> toRun, Listener listener) {
+        if (running) {
+            throw new IllegalStateException("Bulk lookup already running");
+        }
+        this.listener = listener;
+        runItems = toRun;
+        runId++;
+        runStartNanos = System.nanoTime();
+        runEndNanos = 0;
+        runCompleted = 0;
+        runFailed = 0;
+        running = true;
+        cancelled = false;
+
+        System.out.println("📦 BULK: starting " + toRun.size() + " " + type + " lookups, "
+                + pool.getMaximumPoolSize() + " at a time");
+
+        if (toRun.isEmpty()) {
+            finishRun();
+            return;
+        }
+        int id = runId;
+        for (Item item : toRun) {
+            item.status = PENDING;
+            item.result = null;
+            item.error = null;
+            pool.execute(() -> lookup(id, item));
+        }
+    }
+
+    // A task left over from a cancelled run must not touch the current one
+    private boolean isStale(int id) {
+        return cancelled || id != runId;
+    }
+
+    private void lookup(int id, Item item) {
+        LookupContext context = new LookupContext(item.index, ITEM_DEADLINE_MS);
+        synchronized (this) {
+            if (isStale(id)) {
+                return;
+            }
+            item.status = RUNNING;
+            activeContexts.add(context);
+        }
+
+        long startNanos = System.nanoTime();
+        Map<String, Object> result = null;
+        String error = null;
+        try {
+            result = context.call(() -> LookupHelper.fetchDataBasedOnType(item.number, type, subType, null));
+            if (result == null) {
+                error = "No result";
+            } else if (result.containsKey("error")) {
+                error = String.valueOf(result.get("error"));
+            }
+        } catch (Exception e) {
+            error = e.getMessage() != null ? e.getMessage() : e.getClass().getSimpleName();
+        }
+
+        Progress progress;
+        synchronized (this) {
+            activeContexts.remove(context);
+            if (isStale(id)) {
+                return;
+            }
+            item.durationMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos);
+            item.result = result;
+            item.error = error;
+            item.status = error == null ? DONE : FAILED;
+            if (error == null) {
+                runCompleted++;
+            } else {
+                runFailed++;
+            }
+            progress = getProgress();
+        }
+
+        listener.onItemFinished(item, progress);
+        if (progress.getFinished() == progress.total) {
+            finishRun();
+        }
+    }
+
+    private void finishRun() {
+        Progress progress;
+        synchronized (this) {
+            running = false;
+            runEndNanos = System.nanoTime();
+            progress = getProgress();
+        }
+        System.out.println("📦 BULK: " + progress.format() + " in " + progress.elapsedMs + " ms");
+        listener.onComplete(progress);
+    }
+
+    public synchronized Progress getProgress() {
+        long endNanos = runEndNanos != 0 ? runEndNanos : System.nanoTime();
+        long elapsedMs = runStartNanos != 0 ? TimeUnit.NANOSECONDS.toMillis(endNanos - runStartNanos) : 0;
+        return new Progress(runItems.size(), runCompleted, runFailed, elapsedMs);
+    }
+
+    // Stop the run: queued items are skipped and in-flight HTTP calls are cancelled.
+    // Items that never finished are marked failed, so retryFailed() picks them up.
+    public void cancel() {
+        List<LookupContext> toCancel;
+        synchronized (this) {
+            if (!running) {
+                return;
+            }
+            cancelled = true;
+            running = false;
+            runEndNanos = System.nanoTime();
+            toCancel = new ArrayList<>(activeContexts);
+            activeContexts.clear();
+            pool.getQueue().clear();
+            for (Item item : runItems) {
+                if (PENDING.equals(item.status) || RUNNING.equals(item.status)) {
+                    item.status = FAILED;
+                    item.error = "Cancelled";
+                }
+            }
+        }
+        for (LookupContext context : toCancel) {
+            context.cancel();
+        }
+        System.out.println("🛑 BULK: cancelled");
+    }
+
+    // Call when the screen goes away
+    public void shutdown() {
+        cancel();
+        pool.shutdownNow();
+    }
+}
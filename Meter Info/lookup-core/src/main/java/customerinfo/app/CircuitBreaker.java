@@ -0,0 +1,188 @@
+package customerinfo.app;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+import okhttp3.HttpUrl;
+import okhttp3.OkHttpClient;
+import okhttp3.Request;
+import okhttp3.Response;
+
+// Health of one server host.
+// After FAILURE_THRESHOLD failures in a row the breaker opens: calls to that host fail
+// at once instead of waiting out connect/read timeouts, so SERVER3Lookup falls back to
+// the other server straight away. While open, a background probe checks the host every
+// PROBE_INTERVAL_MS and closes the breaker as soon as it answers again. If the probe
+// hasn't closed it after OPEN_DURATION_MS, one real call is let through as a trial.
+public class CircuitBreaker {
+
+    public enum State { CLOSED, OPEN, HALF_OPEN }
+
+    // Thrown instead of making a call to a host whose breaker is open
+    public static class CircuitOpenException extends IOException {
+        private static final long serialVersionUID = 1L;
+
+        public CircuitOpenException(String host) {
+            super("Circuit open for " + host + " - skipped");
+        }
+    }
+
+    private static final int FAILURE_THRESHOLD = 3;
+    private static final long OPEN_DURATION_MS = 30000;
+    private static final long PROBE_INTERVAL_MS = 10000;
+    private static final int PROBE_TIMEOUT_MS = 5000;
+
+    private static final Map<String, CircuitBreaker> breakers = new ConcurrentHashMap<>();
+    private static final ScheduledExecutorService prober = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "circuit-probe");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final String host;
+    private State state = State.CLOSED;
+    private int consecutiveFailures;
+    private long openedAt;
+    private boolean trialInFlight;
+    private String probeUrl;
+    private ScheduledFuture<?> probeTask;
+
+    private CircuitBreaker(String host) {
+        this.host = host;
+    }
+
+    public static CircuitBreaker forHost(String host) {
+        String key = host.toLowerCase();
+        CircuitBreaker breaker = breakers.get(key);
+        if (breaker == null) {
+            breakers.putIfAbsent(key, new CircuitBreaker(key));
+            breaker = breakers.get(key);
+        }
+        return breaker;
+    }
+
+    static CircuitBreaker forUrl(HttpUrl url) {
+        CircuitBreaker breaker = forHost(url.host());
+        synchronized (breaker) {
+            if (breaker.probeUrl == null) {
+                breaker.probeUrl = url.scheme() + "://" + url.host() + "/";
+            }
+        }
+        return breaker;
+    }
+
+    public static Map<String, CircuitBreaker> getBreakers() {
+        return breakers;
+    }
+
+    // " [miscbillapi.bpdb.gov.bd: OPEN]" for every listed host that isn't CLOSED, else ""
+    public static String describeUnhealthy(String... hosts) {
+        List<String> unhealthy = new ArrayList<>();
+        for (String host : hosts) {
+            CircuitBreaker breaker = breakers.get(host.toLowerCase());
+            if (breaker != null && breaker.getState() != State.CLOSED) {
+                unhealthy.add(host + ": " + breaker.getState());
+            }
+        }
+        return unhealthy.isEmpty() ? "" : " " + unhealthy.toString();
+    }
+
+    public synchronized State getState() {
+        return state;
+    }
+
+    public String getHost() {
+        return host;
+    }
+
+    // Throws if calls to this host should be skipped right now. Returns true when the
+    // caller's call is the half-open trial: it must end in recordSuccess, recordFailure
+    // or releaseTrial, or no other call gets through until a probe succeeds.
+    synchronized boolean checkAllowed() throws CircuitOpenException {
+        if (state == State.OPEN && System.currentTimeMillis() - openedAt >= OPEN_DURATION_MS) {
+            state = State.HALF_OPEN;
+            trialInFlight = false;
+        }
+
+        if (state == State.OPEN || (state == State.HALF_OPEN && trialInFlight)) {
+            throw new CircuitOpenException(host);
+        }
+        if (state == State.HALF_OPEN) {
+            trialInFlight = true;
+            return true;
+        }
+        return false;
+    }
+
+    // The trial call ended without an answer from the server (cancelled, rate-limited,
+    // out of time): let the next call be the trial instead
+    synchronized void releaseTrial() {
+        if (state == State.HALF_OPEN) {
+            trialInFlight = false;
+        }
+    }
+
+    synchronized void recordSuccess() {
+        if (state != State.CLOSED) {
+            System.out.println("✅ CIRCUIT: " + host + " recovered, closing");
+        }
+        state = State.CLOSED;
+        consecutiveFailures = 0;
+        trialInFlight = false;
+        if (probeTask != null) {
+            probeTask.cancel(false);
+            probeTask = null;
+        }
+    }
+
+    synchronized void recordFailure() {
+        consecutiveFailures++;
+        if (state == State.HALF_OPEN || consecutiveFailures >= FAILURE_THRESHOLD) {
+            if (state != State.OPEN) {
+                System.out.println("⛔ CIRCUIT: " + host + " opened after " + consecutiveFailures + " failures");
+            }
+            state = State.OPEN;
+            openedAt = System.currentTimeMillis();
+            trialInFlight = false;
+            startProbing();
+        }
+    }
+
+    private void startProbing() {
+        if (probeTask == null && probeUrl != null) {
+            probeTask = prober.scheduleWithFixedDelay(this::probe,
+                    PROBE_INTERVAL_MS, PROBE_INTERVAL_MS, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    // Any answer below 500 means the host is back
+    private void probe() {
+        OkHttpClient client = NetworkHelper.getClient().newBuilder()
+                .connectTimeout(PROBE_TIMEOUT_MS, TimeUnit.MILLISECONDS)
+                .readTimeout(PROBE_TIMEOUT_MS, TimeUnit.MILLISECONDS)
+                .retryOnConnectionFailure(false)
+                .build();
+        Request request = new Request.Builder()
+                .url(probeUrl)
+                .header("User-Agent", NetworkHelper.BROWSER_USER_AGENT)
+                .head()
+                .build();
+
+        try (Response response = client.newCall(request).execute()) {
+            if (response.code() < 500) {
+                recordSuccess();
+            } else {
+                System.out.println("⚠️ CIRCUIT: Probe of " + host + " got HTTP " + response.code());
+            }
+        } catch (IOException e) {
+            System.out.println("⚠️ CIRCUIT: Probe of " + host + " failed: " + e.getMessage());
+        }
+    }
+}
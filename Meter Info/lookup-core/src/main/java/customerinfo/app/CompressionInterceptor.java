@@ -0,0 +1,106 @@
+package customerinfo.app;
+
+import java.io.IOException;
+import java.util.zip.Inflater;
+
+import okhttp3.Interceptor;
+import okhttp3.MediaType;
+import okhttp3.Request;
+import okhttp3.Response;
+import okhttp3.ResponseBody;
+import okio.Buffer;
+import okio.BufferedSource;
+import okio.ForwardingSource;
+import okio.GzipSource;
+import okio.InflaterSource;
+import okio.Okio;
+import okio.Source;
+
+// Asks every server for a gzip/deflate body and decodes it while it is being read.
+// Setting Accept-Encoding ourselves turns off OkHttp's built-in gzip handling, so the
+// interceptor sees the raw wire bytes and can count them next to the decoded bytes.
+public class CompressionInterceptor implements Interceptor {
+
+    static final String ACCEPT_ENCODING = "gzip, deflate";
+
+    @Override
+    public Response intercept(Chain chain) throws IOException {
+        Request request = chain.request();
+        if (request.header("Accept-Encoding") == null) {
+            request = request.newBuilder().header("Accept-Encoding", ACCEPT_ENCODING).build();
+        }
+
+        Response response = chain.proceed(request);
+        if (response.body() == null || request.method().equals("HEAD")) {
+            return response;
+        }
+
+        String server = request.tag(String.class);
+        if (server == null) {
+            server = request.url().host();
+        }
+
+        String encoding = response.header("Content-Encoding");
+        boolean gzip = "gzip".equalsIgnoreCase(encoding);
+        boolean deflate = "deflate".equalsIgnoreCase(encoding);
+        TransferStats.recordResponse(server, gzip || deflate);
+
+        ResponseBody body = response.body();
+        BufferedSource wire = Okio.buffer(new CountingSource(body.source(), server, true));
+        MediaType contentType = body.contentType();
+
+        if (!gzip && !deflate) {
+            // Not compressed: wire and decoded bytes are the same stream
+            BufferedSource plain = Okio.buffer(new CountingSource(wire, server, false));
+            return response.newBuilder()
+                    .body(ResponseBody.create(plain, contentType, body.contentLength()))
+                    .build();
+        }
+
+        Source decoded = gzip ? new GzipSource(wire) : new InflaterSource(wire, newInflater(wire));
+        BufferedSource decodedBody = Okio.buffer(new CountingSource(decoded, server, false));
+
+        // The decoded length is unknown until the stream ends
+        return response.newBuilder()
+                .removeHeader("Content-Encoding")
+                .removeHeader("Content-Length")
+                .body(ResponseBody.create(decodedBody, contentType, -1L))
+                .build();
+    }
+
+    // "deflate" should be zlib-wrapped, but some servers send a raw deflate stream
+    private static Inflater newInflater(BufferedSource wire) throws IOException {
+        if (!wire.request(2)) {
+            return new Inflater();
+        }
+        int cmf = wire.getBuffer().getByte(0) & 0xff;
+        int flg = wire.getBuffer().getByte(1) & 0xff;
+        boolean zlib = (cmf & 0x0f) == 8 && (cmf * 256 + flg) % 31 == 0;
+        return new Inflater(!zlib);
+    }
+
+    // Adds every byte read to the server's wire or decoded counter
+    private static class CountingSource extends ForwardingSource {
+        private final String server;
+        private final boolean wire;
+
+        CountingSource(Source delegate, String server, boolean wire) {
+            super(delegate);
+            this.server = server;
+            this.wire = wire;
+        }
+
+        @Override
+        public long read(Buffer sink, long byteCount) throws IOException {
+            long read = super.read(sink, byteCount);
+            if (read > 0) {
+                if (wire) {
+                    TransferStats.addWireBytes(server, read);
+                } else {
+                    TransferStats.addDecodedBytes(server, read);
+                }
+            }
+            return read;
+        }
+    }
+}
@@ -0,0 +1,249 @@
+package customerinfo.app;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.Proxy;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+import okhttp3.Call;
+import okhttp3.Callback;
+import okhttp3.Connection;
+import okhttp3.EventListener;
+import okhttp3.OkHttpClient;
+import okhttp3.Protocol;
+import okhttp3.Request;
+import okhttp3.Response;
+
+// Opens connections to the BPDB hosts in the background while the user is still on
+// the Home screen. Each host gets one HEAD request, which pays for DNS, TCP and TLS up
+// front; the kept-alive connection then sits in the shared pool, so the first real
+// lookup skips the handshakes. The first real call per host reports whether it got a
+// warm connection, and the DNS+connect time it didn't have to spend is counted as saved.
+public class ConnectionWarmer {
+
+    // The meter lookup shares the SERVER2 host
+    private static final String[] WARM_SERVERS = {NetworkHelper.SERVER1, NetworkHelper.SERVER2, NetworkHelper.SERVER3};
+
+    private static final int WARM_TIMEOUT_MS = 5000;
+    // Pooled connections are evicted after NetworkHelper's keep-alive, so warm again after that
+    private static final long REWARM_INTERVAL_MS = TimeUnit.MINUTES.toMillis(4);
+
+    private static final Map<String, HostWarmup> hosts = new ConcurrentHashMap<>();
+    private static final AtomicLong totalSavedMs = new AtomicLong();
+    private static long lastWarmAt;
+
+    // Warm-up result for one host
+    public static class HostWarmup {
+        private final String host;
+        private volatile long dnsMs = -1;
+        private volatile long connectMs = -1;
+        private volatile String error;
+        private final AtomicBoolean firstCallSeen = new AtomicBoolean();
+        private volatile Boolean firstCallWarm;
+
+        HostWarmup(String host) {
+            this.host = host;
+        }
+
+        public String getHost() {
+            return host;
+        }
+
+        public long getDnsMs() {
+            return dnsMs;
+        }
+
+        // TCP + TLS handshake time
+        public long getConnectMs() {
+            return connectMs;
+        }
+
+        public String getError() {
+            return error;
+        }
+
+        // null until the first real call to this host after warming
+        public Boolean wasFirstCallWarm() {
+            return firstCallWarm;
+        }
+
+        long getSetupMs() {
+            return Math.max(0, dnsMs) + Math.max(0, connectMs);
+        }
+    }
+
+    private ConnectionWarmer() {
+    }
+
+    // Call from Home.onCreate; returns at once, does nothing if warmed recently
+    public static synchronized void warmUp() {
+        long now = System.currentTimeMillis();
+        if (now - lastWarmAt < REWARM_INTERVAL_MS) {
+            return;
+        }
+        lastWarmAt = now;
+        // Building the client sets up SSL, so even that stays off the UI thread. Not on the
+        // lookup pools: a lookup started right away must not queue behind its own warm-up.
+        Thread thread = new Thread(ConnectionWarmer::warmAll, "connection-warmer");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    private static void warmAll() {
+        // Same pool as the lookups; each warm-up call gets its own listener to time it
+        OkHttpClient client = NetworkHelper.getClient().newBuilder()
+                .connectTimeout(WARM_TIMEOUT_MS, TimeUnit.MILLISECONDS)
+                .readTimeout(WARM_TIMEOUT_MS, TimeUnit.MILLISECONDS)
+                .retryOnConnectionFailure(false)
+                .build();
+
+        // Each host once, even when several servers point at the same one
+        Set<String> urls = new LinkedHashSet<>();
+        for (String server : WARM_SERVERS) {
+            urls.add(NetworkHelper.getBaseUrl(server) + "/");
+        }
+
+        System.out.println("🔥 WARMUP: Opening connections to " + urls.size() + " hosts");
+        for (String url : urls) {
+            // One request per host, all at the same time on OkHttp's own dispatcher threads
+            warmHost(client, url);
+        }
+    }
+
+    private static void warmHost(OkHttpClient client, String url) {
+        Request request = new Request.Builder()
+                .url(url)
+                .header("User-Agent", NetworkHelper.BROWSER_USER_AGENT)
+                .head()
+                .build();
+        String host = request.url().host();
+
+        // Don't hammer a host that's already known to be down
+        if (CircuitBreaker.forHost(host).getState() == CircuitBreaker.State.OPEN) {
+            return;
+        }
+
+        WarmupListener listener = new WarmupListener();
+        client.newBuilder().eventListener(listener).build().newCall(request).enqueue(new Callback() {
+            @Override
+            public void onResponse(Call call, Response response) {
+                response.close();
+                System.out.println("🔥 WARMUP: " + host + " ready (HTTP " + response.code() + ")");
+                finished(host, listener, null);
+            }
+
+            @Override
+            public void onFailure(Call call, IOException e) {
+                System.out.println("⚠️ WARMUP: " + host + " failed: " + e.getMessage());
+                finished(host, listener, e.getMessage());
+            }
+        });
+    }
+
+    private static void finished(String host, WarmupListener listener, String error) {
+        HostWarmup warmup = new HostWarmup(host);
+        warmup.error = error;
+        warmup.dnsMs = listener.dnsMs;
+        warmup.connectMs = listener.connectMs;
+        hosts.put(host, warmup);
+    }
+
+    // Times DNS and connect for a warm-up call
+    private static class WarmupListener extends EventListener {
+        private long dnsStart;
+        private long connectStart;
+        volatile long dnsMs = -1;
+        volatile long connectMs = -1;
+
+        @Override
+        public void dnsStart(Call call, String domainName) {
+            dnsStart = System.nanoTime();
+        }
+
+        @Override
+        public void dnsEnd(Call call, String domainName, List<InetAddress> inetAddressList) {
+            dnsMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - dnsStart);
+        }
+
+        @Override
+        public void connectStart(Call call, InetSocketAddress inetSocketAddress, Proxy proxy) {
+            connectStart = System.nanoTime();
+        }
+
+        @Override
+        public void connectEnd(Call call, InetSocketAddress inetSocketAddress, Proxy proxy, Protocol protocol) {
+            connectMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - connectStart);
+        }
+    }
+
+    // Installed on the shared client: tells whether the first lookup call per host found a warm connection
+    static EventListener newFirstCallListener() {
+        return new FirstCallListener();
+    }
+
+    private static class FirstCallListener extends EventListener {
+        private volatile boolean connected;
+
+        @Override
+        public void connectStart(Call call, InetSocketAddress inetSocketAddress, Proxy proxy) {
+            connected = true;
+        }
+
+        @Override
+        public void connectionAcquired(Call call, Connection connection) {
+            // Only real lookup calls carry a server tag; probes and warm-ups don't
+            String server = call.request().tag(String.class);
+            HostWarmup warmup = hosts.get(call.request().url().host());
+            if (server == null || warmup == null || !warmup.firstCallSeen.compareAndSet(false, true)) {
+                return;
+            }
+
+            boolean warm = !connected && warmup.error == null;
+            warmup.firstCallWarm = warm;
+            if (warm) {
+                totalSavedMs.addAndGet(warmup.getSetupMs());
+                System.out.println("🔥 WARMUP: first " + server + " call used a warm connection, saved ~"
+                        + warmup.getSetupMs() + " ms");
+            } else {
+                System.out.println("🔥 WARMUP: first " + server + " call had to connect again");
+            }
+        }
+    }
+
+    // DNS + handshake time the first lookups didn't have to spend
+    public static long getTotalSavedMs() {
+        return totalSavedMs.get();
+    }
+
+    // Snapshot sorted by host
+    public static Map<String, HostWarmup> getHosts() {
+        return new TreeMap<>(hosts);
+    }
+
+    // e.g. "billonwebapi.bpdb.gov.bd: dns 42 ms, connect 310 ms, first call warm"
+    public static String summary() {
+        StringBuilder summary = new StringBuilder();
+        for (HostWarmup warmup : getHosts().values()) {
+            summary.append(warmup.host).append(": ");
+            if (warmup.error != null) {
+                summary.append("failed (").append(warmup.error).append(")\n");
+                continue;
+            }
+            summary.append("dns ").append(warmup.dnsMs).append(" ms, connect ")
+                    .append(warmup.connectMs).append(" ms, first call ");
+            Boolean warm = warmup.firstCallWarm;
+            summary.append(warm == null ? "pending" : warm ? "warm" : "cold").append("\n");
+        }
+        summary.append("Saved by warm-up: ").append(totalSavedMs.get()).append(" ms\n");
+        return summary.toString();
+    }
+}
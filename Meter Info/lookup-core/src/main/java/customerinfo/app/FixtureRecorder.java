@@ -0,0 +1,301 @@
+package customerinfo.app;
+
+import org.json.JSONArray;
+import org.json.JSONObject;
+import org.json.JSONTokener;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.security.SecureRandom;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+
+import okhttp3.Interceptor;
+import okhttp3.Request;
+import okhttp3.Response;
+import okhttp3.ResponseBody;
+import okio.Buffer;
+
+// Saves scrubbed copies of live server responses as fixtures for the replay server.
+// Off until start(dir) is called. Fixtures are written as
+//   <dir>/<endpoint>/<id>.body
+// where endpoint is one of ENDPOINTS and id is the meter or customer number of the
+// request. Names, addresses, phone numbers, tokens and every account, customer and
+// meter number are replaced by pseudonyms of the same shape. Pseudonyms are keyed
+// per recording session, so the same number maps to the same pseudonym in every
+// fixture of a session (the meter lookup's CUSTOMER_NUM still finds that customer's
+// CustomerInformation fixture) but can't be traced back to the real one.
+public class FixtureRecorder implements Interceptor {
+
+    public static final String TOKEN_CHECK = "token-check";
+    public static final String CUSTOMER_INFORMATION = "CustomerInformation";
+    public static final String PRE_CUSTOMER_INFO = "get-pre-customer_info";
+    public static final String METER_LOOKUP = "GetCustomerMeterbyMeterNo";
+    public static final String[] ENDPOINTS = {TOKEN_CHECK, CUSTOMER_INFORMATION, PRE_CUSTOMER_INFO, METER_LOOKUP};
+
+    public static final String FIXTURE_SUFFIX = ".body";
+
+    // Fixtures are buffered whole; nothing the servers send comes close
+    private static final long MAX_FIXTURE_BYTES = 8L * 1024 * 1024;
+
+    // Keys whose values identify a person, matched case-insensitively
+    private static final Set<String> ID_KEYS = new HashSet<>(Arrays.asList(
+            "customeraccountno", "customerno", "customer_number", "customernumber", "customer_num",
+            "meternumber", "meter_num", "meternum", "meterno", "cons_extg_num", "orderno", "bill_no"));
+    // ...and key fragments that do
+    private static final String[] PERSONAL_KEY_PARTS = {
+            "name", "addr", "phone", "mobile", "email", "nid", "father", "token"};
+
+    private static final Pattern METER_NO = Pattern.compile("\"meterNo\"\\s*:\\s*\"([^\"]*)\"");
+
+    private static volatile File fixturesDir;
+    private static volatile byte[] sessionKey;
+    private static final AtomicLong recorded = new AtomicLong();
+
+    // Start writing fixtures under dir; a new session gets new pseudonyms
+    public static synchronized void start(File dir) {
+        if (!dir.isDirectory() && !dir.mkdirs()) {
+            System.out.println("❌ FIXTURES: Could not create " + dir);
+            return;
+        }
+        byte[] key = new byte[32];
+        new SecureRandom().nextBytes(key);
+        sessionKey = key;
+        fixturesDir = dir;
+        System.out.println("🎙️ FIXTURES: Recording to " + dir.getAbsolutePath());
+    }
+
+    public static synchronized void stop() {
+        fixturesDir = null;
+        sessionKey = null;
+    }
+
+    public static boolean isRecording() {
+        return fixturesDir != null;
+    }
+
+    public static long getRecordedCount() {
+        return recorded.get();
+    }
+
+    // Endpoint a request path belongs to, or null for anything else
+    public static String endpointOf(String path) {
+        if (path.endsWith("/bn/token-check")) {
+            return TOKEN_CHECK;
+        }
+        String lower = path.toLowerCase();
+        if (lower.contains("/customerinformation/")) {
+            return CUSTOMER_INFORMATION;
+        }
+        if (lower.contains("/get-pre-customer_info/")) {
+            return PRE_CUSTOMER_INFO;
+        }
+        if (lower.contains("/getcustomermeterbymeterno/")) {
+            return METER_LOOKUP;
+        }
+        return null;
+    }
+
+    // Meter or customer number a request asks for; token-check carries it in the POST body
+    public static String requestId(String endpoint, String path, String body) {
+        if (TOKEN_CHECK.equals(endpoint)) {
+            Matcher matcher = METER_NO.matcher(body != null ? body : "");
+            return matcher.find() ? matcher.group(1) : null;
+        }
+        String id = path.substring(path.lastIndexOf('/') + 1);
+        return id.isEmpty() ? null : id;
+    }
+
+    // SERVER1 answers with a React Server Components stream, the rest with JSON
+    public static String contentType(String endpoint) {
+        return TOKEN_CHECK.equals(endpoint) ? "text/x-component" : "application/json; charset=utf-8";
+    }
+
+    // Sits outside CompressionInterceptor, so it sees the decoded body
+    @Override
+    public Response intercept(Chain chain) throws IOException {
+        Request request = chain.request();
+        File dir = fixturesDir;
+        byte[] key = sessionKey;
+        String endpoint = dir != null ? endpointOf(request.url().encodedPath()) : null;
+
+        Response response = chain.proceed(request);
+        if (endpoint == null || key == null || response.code() != 200 || response.body() == null) {
+            return response;
+        }
+
+        try {
+            String id = requestId(endpoint, request.url().encodedPath(), readBody(request));
+            if (id == null) {
+                return response;
+            }
+
+            // Copies the body; the caller still reads the original stream
+            ResponseBody copy = response.peekBody(MAX_FIXTURE_BYTES + 1);
+            if (copy.contentLength() > MAX_FIXTURE_BYTES) {
+                System.out.println("⚠️ FIXTURES: " + endpoint + " response too large, not recorded");
+                return response;
+            }
+            String body = copy.string();
+
+            String scrubbed = TOKEN_CHECK.equals(endpoint) ? scrubRscStream(body, key) : scrubJson(body, key);
+            File file = write(new File(dir, endpoint), pseudonym(id, key) + FIXTURE_SUFFIX, scrubbed);
+            recorded.incrementAndGet();
+            System.out.println("🎙️ FIXTURES: Saved " + endpoint + "/" + file.getName());
+        } catch (Exception e) {
+            // Recording must never break the lookup itself
+            System.out.println("⚠️ FIXTURES: Could not record " + endpoint + ": " + e.getMessage());
+        }
+        return response;
+    }
+
+    private static String readBody(Request request) throws IOException {
+        if (request.body() == null) {
+            return null;
+        }
+        Buffer buffer = new Buffer();
+        request.body().writeTo(buffer);
+        return buffer.readUtf8();
+    }
+
+    // Written to a temp file first, so the replay server never serves half a fixture
+    private static File write(File dir, String name, String content) throws IOException {
+        if (!dir.isDirectory() && !dir.mkdirs()) {
+            throw new IOException("Could not create " + dir);
+        }
+        File file = new File(dir, name);
+        File temp = new File(dir, name + ".tmp");
+        try (Writer writer = new OutputStreamWriter(new FileOutputStream(temp), StandardCharsets.UTF_8)) {
+            writer.write(content);
+        }
+        if (!temp.renameTo(file)) {
+            file.delete();
+            if (!temp.renameTo(file)) {
+                throw new IOException("Could not rename " + temp);
+            }
+        }
+        return file;
+    }
+
+    // One JSON document
+    static String scrubJson(String body, byte[] key) {
+        Object value = new JSONTokener(body).nextValue();
+        return String.valueOf(scrub(value, false, key));
+    }
+
+    // Rows of "<id>:<json>"; rows that aren't JSON are dropped rather than risk leaking them
+    static String scrubRscStream(String body, byte[] key) {
+        StringBuilder out = new StringBuilder();
+        for (String line : body.split("\n")) {
+            int colon = line.indexOf(':');
+            if (colon <= 0) {
+                continue;
+            }
+            try {
+                Object value = new JSONTokener(line.substring(colon + 1)).nextValue();
+                out.append(line, 0, colon + 1).append(scrub(value, false, key)).append('\n');
+            } catch (Exception e) {
+                // not a JSON row
+            }
+        }
+        return out.toString();
+    }
+
+    // Replaces every value under a personal key, however deeply it is wrapped
+    // (SERVER1 sends "customerName":{"_text":"..."})
+    private static Object scrub(Object value, boolean personal, byte[] key) {
+        if (value instanceof JSONObject) {
+            JSONObject object = (JSONObject) value;
+            Iterator<String> names = object.keys();
+            JSONObject scrubbed = new JSONObject();
+            while (names.hasNext()) {
+                String name = names.next();
+                scrubbed.put(name, scrub(object.get(name), personal || isPersonalKey(name), key));
+            }
+            return scrubbed;
+        }
+        if (value instanceof JSONArray) {
+            JSONArray array = (JSONArray) value;
+            JSONArray scrubbed = new JSONArray();
+            for (int i = 0; i < array.length(); i++) {
+                scrubbed.put(scrub(array.get(i), personal, key));
+            }
+            return scrubbed;
+        }
+        if (personal && value != JSONObject.NULL && !(value instanceof Boolean)) {
+            return pseudonym(value.toString(), key);
+        }
+        return value;
+    }
+
+    private static boolean isPersonalKey(String name) {
+        String lower = name.toLowerCase();
+        if (ID_KEYS.contains(lower)) {
+            return true;
+        }
+        for (String part : PERSONAL_KEY_PARTS) {
+            if (lower.contains(part)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // Same length and character classes as the original: digits stay digits, letters
+    // stay letters of the same case, everything else is kept
+    static String pseudonym(String value, byte[] key) {
+        byte[] hash;
+        try {
+            Mac mac = Mac.getInstance("HmacSHA256");
+            mac.init(new SecretKeySpec(key, "HmacSHA256"));
+            hash = mac.doFinal(value.getBytes(StandardCharsets.UTF_8));
+        } catch (Exception e) {
+            throw new IllegalStateException("HmacSHA256 not available", e);
+        }
+
+        StringBuilder out = new StringBuilder(value.length());
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            int h = (hash[i % hash.length] & 0xff) + i / hash.length;
+            if (c >= '0' && c <= '9') {
+                out.append((char) ('0' + h % 10));
+            } else if (c >= 'a' && c <= 'z') {
+                out.append((char) ('a' + h % 26));
+            } else if (c >= 'A' && c <= 'Z') {
+                out.append((char) ('A' + h % 26));
+            } else if (Character.isLetterOrDigit(c)) {
+                // Bangla and other scripts
+                out.append('X');
+            } else {
+                out.append(c);
+            }
+        }
+        return out.toString();
+    }
+
+    // Fixtures on disk per endpoint
+    public static String summary() {
+        File dir = fixturesDir;
+        if (dir == null) {
+            return "Not recording\n";
+        }
+        StringBuilder sb = new StringBuilder();
+        for (String endpoint : ENDPOINTS) {
+            String[] files = new File(dir, endpoint).list();
+            sb.append(endpoint).append(": ").append(files != null ? files.length : 0).append('\n');
+        }
+        return sb.toString();
+    }
+}
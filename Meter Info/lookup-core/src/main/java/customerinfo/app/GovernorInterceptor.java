@@ -0,0 +1,86 @@
+package customerinfo.app;
+
+import java.io.IOException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import okhttp3.Interceptor;
+import okhttp3.Response;
+import okhttp3.ResponseBody;
+import okio.Buffer;
+import okio.ForwardingSource;
+import okio.Okio;
+import okio.Source;
+
+// Makes every call wait for its host's HostGovernor before it goes out.
+// The in-flight slot is held until the response body has been read or closed,
+// since that is how long the call keeps the server busy.
+// Runs first, so time spent queued isn't counted as server latency.
+public class GovernorInterceptor implements Interceptor {
+
+    @Override
+    public Response intercept(Chain chain) throws IOException {
+        HostGovernor governor = HostGovernor.forHost(chain.request().url().host());
+        if (governor == null) {
+            return chain.proceed(chain.request());
+        }
+
+        governor.acquire(chain.call());
+        Slot slot = new Slot(governor);
+        try {
+            Response response = chain.proceed(chain.request());
+            ResponseBody body = response.body();
+            return response.newBuilder()
+                    .body(ResponseBody.create(Okio.buffer(new ReleasingSource(body.source(), slot)),
+                            body.contentType(), body.contentLength()))
+                    .build();
+        } catch (IOException | RuntimeException e) {
+            slot.release();
+            throw e;
+        }
+    }
+
+    // Released exactly once, whichever comes first: end of body, close, or failure
+    private static class Slot {
+        private final HostGovernor governor;
+        private final AtomicBoolean released = new AtomicBoolean();
+
+        Slot(HostGovernor governor) {
+            this.governor = governor;
+        }
+
+        void release() {
+            if (released.compareAndSet(false, true)) {
+                governor.release();
+            }
+        }
+    }
+
+    private static class ReleasingSource extends ForwardingSource {
+        private final Slot slot;
+
+        ReleasingSource(Source delegate, Slot slot) {
+            super(delegate);
+            this.slot = slot;
+        }
+
+        @Override
+        public long read(Buffer sink, long byteCount) throws IOException {
+            try {
+                long read = super.read(sink, byteCount);
+                if (read == -1) {
+                    slot.release();
+                }
+                return read;
+            } catch (IOException e) {
+                slot.release();
+                throw e;
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            slot.release();
+            super.close();
+        }
+    }
+}
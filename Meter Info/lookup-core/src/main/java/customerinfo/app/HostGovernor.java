@@ -0,0 +1,224 @@
+package customerinfo.app;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+import okhttp3.Call;
+
+// Request rate and concurrency limits for one server host, so parallel and bulk lookups
+// can't flood the BPDB servers and get us throttled or blocked.
+// A call needs a token from the host's bucket (refilled at requestsPerSecond, holding up to
+// burst tokens) and a free in-flight slot. Calls that can't start yet wait in line;
+// a call is rejected at once with HostLimitException when the line is full, or when
+// the wait for a token alone would be longer than maxWaitMs.
+public class HostGovernor {
+
+    // Checked while queued, so cancelled or timed-out calls leave the line quickly
+    private static final long POLL_MS = 100;
+
+    private static final Map<String, HostGovernor> governors = new ConcurrentHashMap<>();
+
+    static {
+        // web.bpdbprepaid.gov.bd is the most sensitive to bursts
+        configure(NetworkHelper.SERVER1_HOST, new Limits(2, 4, 3, 20, 15000));
+        configure(NetworkHelper.SERVER2_HOST, new Limits(5, 8, 4, 30, 15000));
+        configure(NetworkHelper.SERVER3_HOST, new Limits(5, 8, 4, 30, 15000));
+    }
+
+    // Limits for one host
+    public static class Limits {
+        public final double requestsPerSecond;
+        public final int burst;
+        public final int maxInFlight;
+        public final int maxQueued;
+        public final long maxWaitMs;
+
+        public Limits(double requestsPerSecond, int burst, int maxInFlight, int maxQueued, long maxWaitMs) {
+            this.requestsPerSecond = requestsPerSecond;
+            this.burst = Math.max(1, burst);
+            this.maxInFlight = Math.max(1, maxInFlight);
+            this.maxQueued = Math.max(0, maxQueued);
+            this.maxWaitMs = maxWaitMs;
+        }
+    }
+
+    // Thrown instead of making a call the host's limits don't allow
+    public static class HostLimitException extends IOException {
+        private static final long serialVersionUID = 1L;
+
+        public HostLimitException(String host, String reason) {
+            super("Rate limit for " + host + ": " + reason);
+        }
+    }
+
+    private final String host;
+    private Limits limits;
+    private double tokens;
+    private long lastRefillNanos = System.nanoTime();
+    private int inFlight;
+    private int queued;
+    private long admitted;
+    private long delayed;
+    private long rejected;
+
+    private HostGovernor(String host, Limits limits) {
+        this.host = host;
+        this.limits = limits;
+        this.tokens = limits.burst;
+    }
+
+    // Set or change a host's limits; calls already waiting pick them up right away
+    public static void configure(String host, Limits limits) {
+        String key = host.toLowerCase();
+        HostGovernor governor = governors.get(key);
+        if (governor == null) {
+            governors.put(key, new HostGovernor(key, limits));
+            return;
+        }
+        synchronized (governor) {
+            governor.limits = limits;
+            governor.tokens = Math.min(governor.tokens, limits.burst);
+            governor.notifyAll();
+        }
+    }
+
+    // Governor for a host, or null if the host has no limits
+    public static HostGovernor forHost(String host) {
+        return governors.get(host.toLowerCase());
+    }
+
+    public static Map<String, HostGovernor> getGovernors() {
+        return new TreeMap<>(governors);
+    }
+
+    // Wait for a token and an in-flight slot; every successful acquire needs one release()
+    synchronized void acquire(Call call) throws IOException {
+        refill();
+        if (inFlight < limits.maxInFlight && tokens >= 1) {
+            take();
+            return;
+        }
+        if (queued >= limits.maxQueued) {
+            reject("queue full (" + queued + " waiting, " + inFlight + " in flight)");
+        }
+
+        long waitUntil = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(limits.maxWaitMs);
+        queued++;
+        delayed++;
+        System.out.println("🚦 GOVERNOR: " + host + " busy, queued (" + queued + " waiting, "
+                + inFlight + " in flight)");
+        try {
+            while (true) {
+                refill();
+                if (inFlight < limits.maxInFlight && tokens >= 1) {
+                    take();
+                    return;
+                }
+                if (call.isCanceled()) {
+                    throw new InterruptedIOException("Canceled while queued for " + host);
+                }
+
+                long remainingMs = TimeUnit.NANOSECONDS.toMillis(waitUntil - System.nanoTime());
+                long tokenWaitMs = getTokenWaitMs();
+                if (remainingMs <= 0 || tokenWaitMs > remainingMs) {
+                    reject("no slot within " + limits.maxWaitMs + " ms (" + queued + " waiting, "
+                            + inFlight + " in flight)");
+                }
+                wait(Math.max(1, Math.min(POLL_MS, inFlight < limits.maxInFlight ? tokenWaitMs : POLL_MS)));
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while queued for " + host);
+        } finally {
+            queued--;
+        }
+    }
+
+    synchronized void release() {
+        inFlight--;
+        notifyAll();
+    }
+
+    private void take() {
+        tokens -= 1;
+        inFlight++;
+        admitted++;
+    }
+
+    private void reject(String reason) throws HostLimitException {
+        rejected++;
+        System.out.println("⛔ GOVERNOR: " + host + " rejected a request - " + reason);
+        throw new HostLimitException(host, reason);
+    }
+
+    private void refill() {
+        long now = System.nanoTime();
+        double elapsedSeconds = (now - lastRefillNanos) / 1e9;
+        lastRefillNanos = now;
+        tokens = Math.min(limits.burst, tokens + elapsedSeconds * limits.requestsPerSecond);
+    }
+
+    // Time until the next token, 0 if one is available
+    private long getTokenWaitMs() {
+        if (tokens >= 1) {
+            return 0;
+        }
+        if (limits.requestsPerSecond <= 0) {
+            return Long.MAX_VALUE;
+        }
+        return (long) Math.ceil((1 - tokens) * 1000 / limits.requestsPerSecond);
+    }
+
+    public String getHost() {
+        return host;
+    }
+
+    public synchronized Limits getLimits() {
+        return limits;
+    }
+
+    public synchronized int getInFlight() {
+        return inFlight;
+    }
+
+    // Calls waiting for a token or a slot right now
+    public synchronized int getQueued() {
+        return queued;
+    }
+
+    public synchronized long getRejected() {
+        return rejected;
+    }
+
+    // Calls waiting on any host
+    public static int getTotalQueued() {
+        int total = 0;
+        for (HostGovernor governor : governors.values()) {
+            total += governor.getQueued();
+        }
+        return total;
+    }
+
+    // One line per host, e.g. "billonwebapi.bpdb.gov.bd: 4 in flight, 2 queued - 31 admitted (6 waited), 0 rejected [5.0/s, burst 8, max 4]"
+    public static String summary() {
+        StringBuilder summary = new StringBuilder();
+        for (HostGovernor governor : getGovernors().values()) {
+            synchronized (governor) {
+                summary.append(governor.host).append(": ")
+                        .append(governor.inFlight).append(" in flight, ")
+                        .append(governor.queued).append(" queued - ")
+                        .append(governor.admitted).append(" admitted (")
+                        .append(governor.delayed).append(" waited), ")
+                        .append(governor.rejected).append(" rejected [")
+                        .append(governor.limits.requestsPerSecond).append("/s, burst ")
+                        .append(governor.limits.burst).append(", max ")
+                        .append(governor.limits.maxInFlight).append("]\n");
+            }
+        }
+        return summary.toString();
+    }
+}
@@ -0,0 +1,125 @@
+package customerinfo.app;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Recent response latencies (request sent -> headers received) for one server.
+// Timeouts and the hedging delay are derived from these percentiles once enough
+// calls have been seen; until then the configured HostSettings are used as-is.
+public class LatencyTracker {
+
+    private static final int WINDOW = 64;
+    private static final int MIN_SAMPLES = 10;
+
+    // Timeout = percentile x headroom, never below the floor nor above the configured value
+    private static final int READ_TIMEOUT_HEADROOM = 3;
+    private static final int CONNECT_TIMEOUT_HEADROOM = 2;
+    private static final int MIN_READ_TIMEOUT_MS = 5000;
+    private static final int MIN_CONNECT_TIMEOUT_MS = 3000;
+    private static final long MIN_HEDGE_DELAY_MS = 300;
+
+    private static final Map<String, LatencyTracker> trackers = new ConcurrentHashMap<>();
+
+    private final long[] samples = new long[WINDOW];
+    private int count;
+    private int next;
+
+    private final AtomicLong hedgesSent = new AtomicLong();
+    private final AtomicLong hedgesWon = new AtomicLong();
+
+    private LatencyTracker() {
+    }
+
+    public static LatencyTracker forServer(String server) {
+        LatencyTracker tracker = trackers.get(server);
+        if (tracker == null) {
+            trackers.putIfAbsent(server, new LatencyTracker());
+            tracker = trackers.get(server);
+        }
+        return tracker;
+    }
+
+    public static Map<String, LatencyTracker> getTrackers() {
+        return new TreeMap<>(trackers);
+    }
+
+    public synchronized void record(long latencyMs) {
+        samples[next] = latencyMs;
+        next = (next + 1) % WINDOW;
+        if (count < WINDOW) {
+            count++;
+        }
+    }
+
+    public synchronized int getSampleCount() {
+        return count;
+    }
+
+    // Latency percentile in ms (e.g. 95 for p95), or -1 without enough samples
+    public synchronized long getPercentile(int percentile) {
+        if (count < MIN_SAMPLES) {
+            return -1;
+        }
+        long[] sorted = Arrays.copyOf(samples, count);
+        Arrays.sort(sorted);
+        int index = (int) Math.ceil(percentile / 100.0 * count) - 1;
+        return sorted[Math.max(0, Math.min(count - 1, index))];
+    }
+
+    public int getReadTimeoutMs(int configuredMs) {
+        return derive(getPercentile(99), READ_TIMEOUT_HEADROOM, MIN_READ_TIMEOUT_MS, configuredMs);
+    }
+
+    public int getConnectTimeoutMs(int configuredMs) {
+        return derive(getPercentile(95), CONNECT_TIMEOUT_HEADROOM, MIN_CONNECT_TIMEOUT_MS, configuredMs);
+    }
+
+    // How long to wait before sending a hedged duplicate, or -1 if not known yet
+    public long getHedgeDelayMs() {
+        long p95 = getPercentile(95);
+        return p95 < 0 ? -1 : Math.max(MIN_HEDGE_DELAY_MS, p95);
+    }
+
+    private static int derive(long percentile, int headroom, int floorMs, int configuredMs) {
+        if (percentile < 0 || configuredMs <= floorMs) {
+            return configuredMs;
+        }
+        long timeout = percentile * headroom;
+        return (int) Math.max(floorMs, Math.min(configuredMs, timeout));
+    }
+
+    void hedgeSent() {
+        hedgesSent.incrementAndGet();
+    }
+
+    void hedgeWon() {
+        hedgesWon.incrementAndGet();
+    }
+
+    public long getHedgesSent() {
+        return hedgesSent.get();
+    }
+
+    // Hedged duplicates that answered before the original
+    public long getHedgesWon() {
+        return hedgesWon.get();
+    }
+
+    // "SERVER2: p50 420 ms, p95 1900 ms, p99 4100 ms (64 samples), hedges 3 sent / 2 won"
+    public static String summary() {
+        StringBuilder summary = new StringBuilder();
+        for (Map.Entry<String, LatencyTracker> entry : getTrackers().entrySet()) {
+            LatencyTracker tracker = entry.getValue();
+            summary.append(entry.getKey()).append(": p50 ").append(tracker.getPercentile(50))
+                    .append(" ms, p95 ").append(tracker.getPercentile(95))
+                    .append(" ms, p99 ").append(tracker.getPercentile(99))
+                    .append(" ms (").append(tracker.getSampleCount()).append(" samples), hedges ")
+                    .append(tracker.getHedgesSent()).append(" sent / ")
+                    .append(tracker.getHedgesWon()).append(" won\n");
+        }
+        return summary.toString();
+    }
+}
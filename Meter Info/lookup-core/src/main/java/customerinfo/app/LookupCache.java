@@ -0,0 +1,203 @@
+package customerinfo.app;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+// Two-tier cache of server responses: an in-memory LRU in front of files under
+// <files dir>/lookup_cache. SERVER1 and the meter lookup are keyed by meter number,
+// SERVER2 and SERVER3 by customer number. Each server has its own time to live:
+// customer master data changes rarely, balances and recharges change often.
+// Payloads are the already trimmed/parsed responses in JSON form, not the raw bodies.
+public class LookupCache {
+
+    private static final String DIR_NAME = "lookup_cache";
+    private static final int MAX_MEMORY_ENTRIES = 64;
+
+    private static final Map<String, Long> ttlMillis = new ConcurrentHashMap<>();
+    private static volatile File cacheDir;
+
+    static {
+        // SERVER1 carries the latest recharges and tokens
+        ttlMillis.put(NetworkHelper.SERVER1, TimeUnit.MINUTES.toMillis(5));
+        // SERVER2 carries balances and bills
+        ttlMillis.put(NetworkHelper.SERVER2, TimeUnit.MINUTES.toMillis(10));
+        // SERVER3 is customer master data
+        ttlMillis.put(NetworkHelper.SERVER3, TimeUnit.HOURS.toMillis(6));
+        // Meter -> customer numbers almost never changes
+        ttlMillis.put(NetworkHelper.METER_LOOKUP, TimeUnit.HOURS.toMillis(24));
+    }
+
+    private static final LinkedHashMap<String, Entry> memory =
+            new LinkedHashMap<String, Entry>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, LookupCache.Entry> eldest) {
+                    return size() > MAX_MEMORY_ENTRIES;
+                }
+            };
+
+    // One cached payload and when it was fetched from the server
+    public static class Entry {
+        public final String payload;
+        public final long storedAt;
+
+        Entry(String payload, long storedAt) {
+            this.payload = payload;
+            this.storedAt = storedAt;
+        }
+
+        public long getAgeMillis() {
+            return Math.max(0, System.currentTimeMillis() - storedAt);
+        }
+    }
+
+    private LookupCache() {
+    }
+
+    // Enable the disk tier under filesDir (the app's getFilesDir()); safe to call from every activity
+    public static void init(File filesDir) {
+        if (cacheDir == null) {
+            File dir = new File(filesDir, DIR_NAME);
+            if (dir.isDirectory() || dir.mkdirs()) {
+                cacheDir = dir;
+            }
+        }
+    }
+
+    public static void setTtl(String server, long ttl, TimeUnit unit) {
+        ttlMillis.put(server, unit.toMillis(ttl));
+    }
+
+    public static long getTtlMillis(String server) {
+        Long ttl = ttlMillis.get(server);
+        return ttl != null ? ttl : 0;
+    }
+
+    // Fresh entry for server/number, or null
+    public static Entry get(String server, String number) {
+        String key = key(server, number);
+        long ttl = getTtlMillis(server);
+
+        Entry entry;
+        synchronized (memory) {
+            entry = memory.get(key);
+        }
+        if (entry == null) {
+            entry = readFromDisk(key);
+            if (entry != null) {
+                synchronized (memory) {
+                    memory.put(key, entry);
+                }
+            }
+        }
+
+        if (entry == null || entry.getAgeMillis() > ttl) {
+            return null;
+        }
+        System.out.println("💾 CACHE HIT: " + key + " (" + formatAge(entry.getAgeMillis()) + " old)");
+        return entry;
+    }
+
+    public static void put(String server, String number, String payload) {
+        if (getTtlMillis(server) <= 0) {
+            return;
+        }
+        String key = key(server, number);
+        Entry entry = new Entry(payload, System.currentTimeMillis());
+        synchronized (memory) {
+            memory.put(key, entry);
+        }
+        writeToDisk(key, entry);
+    }
+
+    // Drop everything, e.g. when the user wants live data
+    public static void clear() {
+        synchronized (memory) {
+            memory.clear();
+        }
+        File dir = cacheDir;
+        File[] files = dir != null ? dir.listFiles() : null;
+        if (files != null) {
+            for (File file : files) {
+                file.delete();
+            }
+        }
+    }
+
+    // "<1 min", "4 min", "3 h"
+    public static String formatAge(long ageMillis) {
+        long minutes = TimeUnit.MILLISECONDS.toMinutes(ageMillis);
+        if (minutes < 1) {
+            return "<1 min";
+        }
+        if (minutes < 60) {
+            return minutes + " min";
+        }
+        return TimeUnit.MILLISECONDS.toHours(ageMillis) + " h";
+    }
+
+    private static String key(String server, String number) {
+        // Numbers are digits, but keep the file name safe whatever the user typed
+        return server + "_" + number.trim().replaceAll("[^A-Za-z0-9]", "_");
+    }
+
+    // File layout: first line is the store time, the rest is the payload
+    private static Entry readFromDisk(String key) {
+        File dir = cacheDir;
+        if (dir == null) {
+            return null;
+        }
+        File file = new File(dir, key);
+        if (!file.isFile()) {
+            return null;
+        }
+
+        try (BufferedReader reader = new BufferedReader(
+                new InputStreamReader(new FileInputStream(file), StandardCharsets.UTF_8))) {
+            long storedAt = Long.parseLong(reader.readLine());
+            StringBuilder payload = new StringBuilder();
+            char[] buffer = new char[4096];
+            int read;
+            while ((read = reader.read(buffer)) != -1) {
+                payload.append(buffer, 0, read);
+            }
+            return new Entry(payload.toString(), storedAt);
+        } catch (Exception e) {
+            System.out.println("⚠️ CACHE: Dropping unreadable entry " + key + ": " + e.getMessage());
+            file.delete();
+            return null;
+        }
+    }
+
+    private static void writeToDisk(String key, Entry entry) {
+        File dir = cacheDir;
+        if (dir == null) {
+            return;
+        }
+
+        // Write to a temp file first so a reader never sees half an entry
+        File temp = new File(dir, key + ".tmp");
+        try (Writer writer = new OutputStreamWriter(new FileOutputStream(temp), StandardCharsets.UTF_8)) {
+            writer.write(Long.toString(entry.storedAt));
+            writer.write('\n');
+            writer.write(entry.payload);
+        } catch (IOException e) {
+            System.out.println("⚠️ CACHE: Could not write " + key + ": " + e.getMessage());
+            temp.delete();
+            return;
+        }
+        if (!temp.renameTo(new File(dir, key))) {
+            temp.delete();
+        }
+    }
+}
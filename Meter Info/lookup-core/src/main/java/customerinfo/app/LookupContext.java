@@ -0,0 +1,115 @@
+package customerinfo.app;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.TimeUnit;
+
+import okhttp3.Call;
+
+// State of one lookup (one Submit tap), shared by every thread that works on it.
+// NetworkHelper registers each HTTP call here, so cancelling the lookup aborts
+// all of its in-flight requests, including the parallel SERVER2/SERVER3 ones.
+// A lookup can also have a hard deadline and a retry budget shared by all its requests.
+public class LookupContext {
+
+    private static final ThreadLocal<LookupContext> current = new ThreadLocal<>();
+
+    // Retries allowed across all requests of one lookup
+    private static final int MAX_RETRIES = 6;
+
+    private final long generation;
+    private final long deadlineNanos;
+    private final List<Call> calls = new ArrayList<>();
+    private boolean cancelled;
+    private int retriesUsed;
+
+    public LookupContext(long generation) {
+        this(generation, 0);
+    }
+
+    // deadlineMs: time the whole lookup may take, 0 for no deadline
+    public LookupContext(long generation, long deadlineMs) {
+        this.generation = generation;
+        this.deadlineNanos = deadlineMs > 0 ? System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(deadlineMs) : 0;
+    }
+
+    // The lookup the calling thread is working for, or null outside of a lookup
+    public static LookupContext current() {
+        return current.get();
+    }
+
+    // Wrap a task so it runs under the caller's lookup on whatever thread executes it
+    public static <T> Callable<T> propagate(Callable<T> task) {
+        LookupContext context = current();
+        if (context == null) {
+            return task;
+        }
+        return () -> context.call(task);
+    }
+
+    // Run a task on this thread with this lookup as the current one
+    public <T> T call(Callable<T> task) throws Exception {
+        LookupContext previous = current.get();
+        current.set(this);
+        try {
+            return task.call();
+        } finally {
+            if (previous == null) {
+                current.remove();
+            } else {
+                current.set(previous);
+            }
+        }
+    }
+
+    public long getGeneration() {
+        return generation;
+    }
+
+    public synchronized boolean isCancelled() {
+        return cancelled;
+    }
+
+    // Time left before the deadline, Long.MAX_VALUE without one
+    public long getRemainingMillis() {
+        if (deadlineNanos == 0) {
+            return Long.MAX_VALUE;
+        }
+        return Math.max(0, TimeUnit.NANOSECONDS.toMillis(deadlineNanos - System.nanoTime()));
+    }
+
+    // Take one retry from the lookup's budget
+    synchronized boolean tryAcquireRetry() {
+        if (retriesUsed >= MAX_RETRIES) {
+            return false;
+        }
+        retriesUsed++;
+        return true;
+    }
+
+    // Cancel the lookup and every HTTP call it has started
+    public void cancel() {
+        List<Call> toCancel;
+        synchronized (this) {
+            if (cancelled) {
+                return;
+            }
+            cancelled = true;
+            toCancel = new ArrayList<>(calls);
+            calls.clear();
+        }
+        for (Call call : toCancel) {
+            call.cancel();
+        }
+    }
+
+    // Track a call; a call registered after cancel() is cancelled right away
+    synchronized void register(Call call) {
+        if (cancelled) {
+            call.cancel();
+        } else {
+            calls.add(call);
+        }
+    }
+}
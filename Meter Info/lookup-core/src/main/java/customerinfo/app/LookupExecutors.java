@@ -0,0 +1,67 @@
+package customerinfo.app;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Thread pools used by the lookup code.
+// Each pool only ever waits on pools below it, so nested fan-outs can't deadlock:
+//   customer pool - one customer's postpaid workflow, waits on the server pool
+//   server pool   - single HTTP request + parse, never waits on other tasks
+public class LookupExecutors {
+
+    private static final int SERVER_THREADS = 6;
+    private static final int DEFAULT_CUSTOMER_PARALLELISM = 4;
+
+    private static final ExecutorService serverPool = newPool("server", SERVER_THREADS);
+    private static final ThreadPoolExecutor customerPool = newPool("customer", DEFAULT_CUSTOMER_PARALLELISM);
+
+    private LookupExecutors() {
+    }
+
+    // For leaf tasks: one server request each
+    public static ExecutorService server() {
+        return serverPool;
+    }
+
+    // For per-customer work inside a meter lookup
+    public static ExecutorService customers() {
+        return customerPool;
+    }
+
+    public static int getCustomerParallelism() {
+        return customerPool.getMaximumPoolSize();
+    }
+
+    // How many customers of one meter are fetched at the same time
+    public static synchronized void setCustomerParallelism(int parallelism) {
+        int threads = Math.max(1, parallelism);
+        // Core size must never exceed max size, so the order depends on the direction
+        if (threads > customerPool.getMaximumPoolSize()) {
+            customerPool.setMaximumPoolSize(threads);
+            customerPool.setCorePoolSize(threads);
+        } else {
+            customerPool.setCorePoolSize(threads);
+            customerPool.setMaximumPoolSize(threads);
+        }
+    }
+
+    static ThreadPoolExecutor newPool(String name, int threads) {
+        ThreadPoolExecutor pool = new ThreadPoolExecutor(threads, threads,
+                30, TimeUnit.SECONDS, new LinkedBlockingQueue<>(), namedThreads(name));
+        pool.allowCoreThreadTimeOut(true);
+        return pool;
+    }
+
+    private static ThreadFactory namedThreads(String name) {
+        AtomicInteger counter = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, "lookup-" + name + "-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+}
@@ -0,0 +1,703 @@
+package customerinfo.app;
+
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+import okhttp3.Response;
+
+// The lookup workflows: SERVER 1/2/3 and meter lookup requests plus the prepaid,
+// postpaid and meter-number pipelines built on them. No UI code here, so the same
+// workflows serve MainActivity, ApplicationFormHelper and bulk lookups.
+public class LookupHelper {
+
+    // Called every time one more customer of a meter lookup has finished
+    public interface MeterLookupListener {
+        void onPartialResult(Map<String, Object> partialResult);
+    }
+
+    // Called on lookup threads as each server's part of a prepaid or consumer number lookup
+    // lands, before the whole lookup is done. Coalesced callers only get the final result.
+    public interface SectionListener {
+        // SERVER 1 has answered; SERVER 2/3 may still be running
+        default void onPrepaidAccount(AccountRecords.PrepaidAccount account) {
+        }
+
+        // SERVER 2 or SERVER 3 has answered for this customer. The account holds everything
+        // that has arrived so far; the side that is still pending is missing from it.
+        default void onPartialAccount(String server, AccountRecords.PostpaidAccount account) {
+        }
+    }
+
+    private LookupHelper() {
+    }
+
+    // Run the workflow for one input number: prepaid meter, postpaid consumer number or postpaid meter
+    public static Map<String, Object> fetchDataBasedOnType(String inputNumber, String type, String subType,
+                                                           MeterLookupListener listener) {
+        return fetchDataBasedOnType(inputNumber, type, subType, listener, null);
+    }
+
+    // sections: SERVER by SERVER progress of prepaid and consumer number lookups, may be null
+    public static Map<String, Object> fetchDataBasedOnType(String inputNumber, String type, String subType,
+                                                           MeterLookupListener listener, SectionListener sections) {
+        if (type.equals("prepaid")) {
+            return fetchPrepaidData(inputNumber, sections);
+        } else {
+            return subType.equals("consumer_no") ?
+                    fetchPostpaidData(inputNumber, sections) : fetchMeterLookupData(inputNumber, listener);
+        }
+    }
+
+    // NEW: Get customer numbers from meter number
+    public static Map<String, Object> getCustomerNumbersByMeter(String meterNumber) {
+        return NetworkMetrics.measure("getCustomerNumbersByMeter", () -> fetchCustomerNumbersByMeter(meterNumber));
+    }
+
+    private static Map<String, Object> fetchCustomerNumbersByMeter(String meterNumber) {
+        Map<String, Object> result = new HashMap<>();
+        String url = NetworkHelper.url(NetworkHelper.METER_LOOKUP, "/api/BillInformation/GetCustomerMeterbyMeterNo/12/" + meterNumber);
+
+        System.out.println("🔍 METER LOOKUP API: Fetching customers for meter: " + meterNumber);
+
+        JSONObject cachedData = getCachedJson(NetworkHelper.METER_LOOKUP, meterNumber, result);
+        if (cachedData != null) {
+            addCustomerNumbers(cachedData, meterNumber, result);
+            return result;
+        }
+
+        try (Response response = NetworkHelper.getHedged(NetworkHelper.METER_LOOKUP, url)) {
+            if (response.code() == 200) {
+                JSONObject meterData = StreamingJsonParser.parseMeterLookup(response.body().charStream());
+                addCustomerNumbers(meterData, meterNumber, result);
+
+                if (!result.containsKey("error")) {
+                    LookupCache.put(NetworkHelper.METER_LOOKUP, meterNumber, meterData.toString());
+                }
+            } else {
+                result.put("error", "HTTP Error: " + response.code());
+            }
+        } catch (Exception e) {
+            System.out.println("❌ METER LOOKUP API Error: " + e.getMessage());
+            result.put("error", "Meter API Error: " + e.getMessage());
+        }
+        return result;
+    }
+
+    // Customer numbers of a meter lookup response, or an error
+    private static void addCustomerNumbers(JSONObject meterData, String meterNumber, Map<String, Object> result) {
+        try {
+            if (meterData.getInt("status") == 1 && meterData.has("content")) {
+                JSONArray customers = meterData.getJSONArray("content");
+                List<String> customerNumbers = new ArrayList<>();
+
+                System.out.println("✅ Found " + customers.length() + " customer(s) for meter " + meterNumber);
+
+                for (int i = 0; i < customers.length(); i++) {
+                    JSONObject customer = customers.getJSONObject(i);
+                    String custNum = customer.optString("CUSTOMER_NUM");
+                    if (!custNum.isEmpty()) {
+                        customerNumbers.add(custNum);
+                        System.out.println("   👤 Customer: " + custNum + " - " + customer.optString("CUSTOMER_NAME", "N/A"));
+                    }
+                }
+
+                if (!customerNumbers.isEmpty()) {
+                    result.put("customer_numbers", customerNumbers);
+                    result.put("meter_api_data", meterData);
+                } else {
+                    result.put("error", "No customer numbers found for this meter");
+                }
+            } else {
+                result.put("error", "No customer data found for this meter");
+            }
+        } catch (JSONException e) {
+            System.out.println("❌ METER LOOKUP API Error: " + e.getMessage());
+            result.put("error", "Meter API Error: " + e.getMessage());
+        }
+    }
+
+    // Fresh cached JSON for server/number, or null; records the entry's age in result
+    private static JSONObject getCachedJson(String server, String number, Map<String, Object> result) {
+        LookupCache.Entry cached = LookupCache.get(server, number);
+        if (cached == null) {
+            return null;
+        }
+        try {
+            JSONObject data = new JSONObject(cached.payload);
+            result.put("cache_age", cached.getAgeMillis());
+            return data;
+        } catch (JSONException e) {
+            System.out.println("⚠️ " + server + ": Ignoring bad cache entry: " + e.getMessage());
+            return null;
+        }
+    }
+
+    public static Map<String, Object> fetchMeterLookupData(String meterNumber, MeterLookupListener listener) {
+        Map<String, Object> result = new HashMap<>();
+        result.put("meter_number", meterNumber);
+        result.put("customer_numbers", new ArrayList<String>());
+        result.put("customer_results", new ArrayList<Map<String, Object>>());
+
+        System.out.println("🔍 Starting meter lookup for: " + meterNumber);
+
+        // Step 1: Get customer numbers from meter API
+        Map<String, Object> meterResult = getCustomerNumbersByMeter(meterNumber);
+
+        if (meterResult.containsKey("error")) {
+            result.put("error", meterResult.get("error"));
+            return result;
+        }
+
+        if (!meterResult.containsKey("customer_numbers")) {
+            result.put("error", "No customer numbers found for this meter");
+            return result;
+        }
+
+        List<String> customerNumbers = (List<String>) meterResult.get("customer_numbers");
+        result.put("customer_numbers", customerNumbers);
+        result.put("meter_api_data", meterResult.get("meter_api_data"));
+        result.put("cache_info", Collections.singletonMap(NetworkHelper.METER_LOOKUP, getCacheAge(meterResult)));
+
+        System.out.println("🔄 Processing " + customerNumbers.size() + " customer(s) with parallelism "
+                + LookupExecutors.getCustomerParallelism());
+
+        // Step 2: Process every customer number with the postpaid workflow at the same time.
+        // Each result goes into its own slot, so customer_results keeps the original order.
+        // Atomic slots: partial snapshots read them while other customers are still writing.
+        int customerCount = customerNumbers.size();
+        AtomicReferenceArray<Map<String, Object>> slots = new AtomicReferenceArray<>(customerCount);
+        CompletionService<Integer> completionService = new ExecutorCompletionService<>(LookupExecutors.customers());
+        List<Future<Integer>> futures = new ArrayList<>();
+
+        for (int i = 0; i < customerCount; i++) {
+            final int index = i;
+            final String custNum = customerNumbers.get(i);
+            futures.add(completionService.submit(LookupContext.propagate(() -> {
+                System.out.println("🔄 Processing customer: " + custNum);
+                slots.set(index, fetchPostpaidData(custNum));
+                return index;
+            })));
+        }
+
+        try {
+            for (int done = 0; done < customerCount; done++) {
+                Future<Integer> finished = completionService.take();
+                try {
+                    finished.get();
+                } catch (ExecutionException e) {
+                    System.out.println("❌ Customer task failed: " + e.getCause());
+                }
+
+                // Render what we have so far; a slow customer doesn't hold back the others
+                if (listener != null && done < customerCount - 1) {
+                    Map<String, Object> partialResult = new HashMap<>(result);
+                    List<Map<String, Object>> soFar = new ArrayList<>(customerCount);
+                    for (int i = 0; i < customerCount; i++) {
+                        soFar.add(slots.get(i));
+                    }
+                    partialResult.put("customer_results", soFar);
+                    listener.onPartialResult(partialResult);
+                }
+            }
+        } catch (InterruptedException e) {
+            for (Future<Integer> future : futures) {
+                future.cancel(true);
+            }
+            Thread.currentThread().interrupt();
+        }
+
+        List<Map<String, Object>> customerResults = new ArrayList<>();
+        for (int i = 0; i < customerCount; i++) {
+            Map<String, Object> customerResult = slots.get(i);
+            if (customerResult == null) {
+                customerResult = new HashMap<>();
+                customerResult.put("customer_number", customerNumbers.get(i));
+                customerResult.put("error", "All data sources failed");
+            }
+            customerResults.add(customerResult);
+        }
+
+        result.put("customer_results", customerResults);
+        return result;
+    }
+
+    // SERVER 1: Get consumer number from prepaid meter
+    // Concurrent calls for the same meter share one request
+    public static Map<String, Object> SERVER1Lookup(String meterNumber) {
+        return SERVER1Lookup(meterNumber, null);
+    }
+
+    // listener sees the response while it is still downloading. It only fires for the
+    // caller that actually makes the request - not for cache hits or coalesced callers.
+    public static Map<String, Object> SERVER1Lookup(String meterNumber, Server1StreamParser.Listener listener) {
+        return NetworkMetrics.measure("SERVER1Lookup", () ->
+                SingleFlight.execute(NetworkHelper.SERVER1 + ":" + meterNumber, () -> fetchSERVER1Data(meterNumber, listener)));
+    }
+
+    private static Map<String, Object> fetchSERVER1Data(String meterNumber, Server1StreamParser.Listener listener) {
+        Map<String, Object> result = new HashMap<>();
+        String origin = NetworkHelper.getBaseUrl(NetworkHelper.SERVER1);
+        String url = origin + "/bn/token-check";
+
+        Map<String, String> headers = new LinkedHashMap<>();
+        headers.put("Accept", "text/x-component");
+        headers.put("Next-Action", "29e85b2c55c9142822fe8da82a577612d9e58bb2");
+        headers.put("Origin", origin);
+        headers.put("Referer", url);
+        headers.put("User-Agent", "Mozilla/5.0");
+
+        String requestData = "[{\"meterNo\":\"" + meterNumber + "\"}]";
+
+        LookupCache.Entry cached = LookupCache.get(NetworkHelper.SERVER1, meterNumber);
+        if (cached != null) {
+            try {
+                Server1StreamParser.Result SERVER1Data = Server1StreamParser.Result.fromJson(cached.payload);
+                result.put("consumer_number", SERVER1Data.consumerNumber);
+                result.put("SERVER1_data", SERVER1Data);
+                result.put("prepaid_account", ServerDataHelper.buildPrepaidAccount(meterNumber, SERVER1Data));
+                result.put("cache_age", cached.getAgeMillis());
+                return result;
+            } catch (JSONException e) {
+                System.out.println("⚠️ SERVER 1: Ignoring bad cache entry: " + e.getMessage());
+            }
+        }
+
+        try (Response response = NetworkHelper.post(NetworkHelper.SERVER1, url, headers,
+                requestData, "text/plain;charset=UTF-8", true)) {
+            int responseCode = response.code();
+
+            if (responseCode == 200) {
+                // Parsed row by row while downloading; stops once the data row is complete
+                Server1StreamParser.Result SERVER1Data = Server1StreamParser.parse(response.body().charStream(), listener);
+
+                result.put("consumer_number", SERVER1Data.consumerNumber);
+                result.put("SERVER1_data", SERVER1Data);
+                result.put("prepaid_account", ServerDataHelper.buildPrepaidAccount(meterNumber, SERVER1Data));
+
+                if (SERVER1Data.consumerNumber != null) {
+                    LookupCache.put(NetworkHelper.SERVER1, meterNumber, SERVER1Data.toJson());
+                }
+            } else {
+                result.put("error", "HTTP Error: " + responseCode);
+            }
+        } catch (Exception e) {
+            result.put("error", "SERVER 1 Error: " + e.getMessage());
+        }
+        return result;
+    }
+
+    // CORRECTED: SERVER3Lookup to always fetch both servers
+    // SERVER 2 and SERVER 3 are independent, so both requests run at the same time
+    // Concurrent calls for the same customer share one pair of requests
+    public static Map<String, Object> SERVER3Lookup(String customerNumber) {
+        return SERVER3Lookup(customerNumber, null);
+    }
+
+    // sections hears SERVER 2 and SERVER 3 as each one lands
+    public static Map<String, Object> SERVER3Lookup(String customerNumber, SectionListener sections) {
+        return NetworkMetrics.measure("SERVER3Lookup", () ->
+                SingleFlight.execute(NetworkHelper.SERVER3 + ":" + customerNumber,
+                        () -> fetchSERVER2And3Data(customerNumber, sections)));
+    }
+
+    private static Map<String, Object> fetchSERVER2And3Data(String customerNumber, SectionListener sections) {
+        Map<String, Object> result = new HashMap<>();
+        PartialAccount partial = sections != null ? new PartialAccount(customerNumber, sections) : null;
+
+        System.out.println("🔍 SERVER 3: Starting data fetch for: " + customerNumber);
+
+        // Start SERVER 2 (it has bill info) and SERVER 3 together
+        System.out.println("🔄 SERVER 3: Fetching SERVER 2 and SERVER 3 data in parallel...");
+        Future<Map<String, Object>> SERVER2Future = LookupExecutors.server().submit(LookupContext.propagate(() ->
+                PartialAccount.landed(partial, NetworkHelper.SERVER2, SERVER2Lookup(customerNumber))));
+        Future<Map<String, Object>> SERVER3Future = LookupExecutors.server().submit(LookupContext.propagate(() ->
+                PartialAccount.landed(partial, NetworkHelper.SERVER3, fetchSERVER3Data(customerNumber))));
+
+        // Each side fails on its own - one server's error never cancels the other
+        Map<String, Object> SERVER2Result = awaitServer(SERVER2Future, "SERVER 2");
+        Map<String, Object> SERVER3Result = awaitServer(SERVER3Future, "SERVER 3");
+        Map<String, Long> cacheInfo = new LinkedHashMap<>();
+
+        if (SERVER2Result != null && !SERVER2Result.containsKey("error")) {
+            result.put("SERVER2_data", SERVER2Result.get("SERVER2_data"));
+            cacheInfo.put(NetworkHelper.SERVER2, getCacheAge(SERVER2Result));
+            System.out.println("✅ SERVER 3: SERVER2 data fetched successfully");
+        } else {
+            System.out.println("❌ SERVER 3: SERVER2 data fetch failed");
+        }
+
+        // Breakers that aren't CLOSED are shown next to the source, e.g. "SERVER2_only [miscbillapi.bpdb.gov.bd: OPEN]"
+        String breakerState = CircuitBreaker.describeUnhealthy(NetworkHelper.SERVER2_HOST, NetworkHelper.SERVER3_HOST);
+        if (SERVER3Result != null && SERVER3Result.containsKey("SERVER3_data")) {
+            result.put("SERVER3_data", SERVER3Result.get("SERVER3_data"));
+            cacheInfo.put(NetworkHelper.SERVER3, getCacheAge(SERVER3Result));
+            result.put("source", "SERVER3_with_SERVER2" + breakerState);
+        } else {
+            result.put("source", "SERVER2_only" + breakerState);
+        }
+        result.put("cache_info", cacheInfo);
+
+        // If we have at least one data source, return success
+        if (result.containsKey("SERVER2_data") || result.containsKey("SERVER3_data")) {
+            // Cleaned once here; coalesced callers share the same record
+            result.put("postpaid_account", ServerDataHelper.buildPostpaidAccount(customerNumber,
+                    (JSONObject) result.get("SERVER2_data"), (JSONObject) result.get("SERVER3_data")));
+            System.out.println("✅ SERVER 3: Data fetch completed with sources: " + result.get("source"));
+        } else {
+            System.out.println("❌ SERVER 3: All data sources failed");
+            result.put("error", "Both SERVER 3 and SERVER 2 failed to return valid data");
+        }
+
+        return result;
+    }
+
+    // SERVER 2 and SERVER 3 of one customer as they land, for a SectionListener
+    private static class PartialAccount {
+        private final String customerNumber;
+        private final SectionListener sections;
+        private JSONObject SERVER2Data;
+        private JSONObject SERVER3Data;
+
+        PartialAccount(String customerNumber, SectionListener sections) {
+            this.customerNumber = customerNumber;
+            this.sections = sections;
+        }
+
+        // Passes the server's result through; a failed side adds nothing
+        static Map<String, Object> landed(PartialAccount partial, String server, Map<String, Object> serverResult) {
+            if (partial == null || serverResult == null || serverResult.containsKey("error")) {
+                return serverResult;
+            }
+            JSONObject data = (JSONObject) serverResult.get(server + "_data");
+            if (data != null) {
+                partial.add(server, data);
+            }
+            return serverResult;
+        }
+
+        private synchronized void add(String server, JSONObject data) {
+            if (NetworkHelper.SERVER2.equals(server)) {
+                SERVER2Data = data;
+            } else {
+                SERVER3Data = data;
+            }
+            try {
+                sections.onPartialAccount(server,
+                        ServerDataHelper.buildPostpaidAccount(customerNumber, SERVER2Data, SERVER3Data));
+            } catch (Exception e) {
+                // A display problem must not fail the lookup
+                System.out.println("⚠️ SECTIONS: " + server + " update failed: " + e.getMessage());
+            }
+        }
+    }
+
+    // Fetch SERVER 3 customer info; SERVER3_data is missing if the server failed or sent invalid data
+    private static Map<String, Object> fetchSERVER3Data(String customerNumber) {
+        Map<String, Object> result = new HashMap<>();
+        String url = NetworkHelper.url(NetworkHelper.SERVER3, "/API/v1/get-pre-customer_info/" + customerNumber);
+        System.out.println("🔍 SERVER 3: Fetching SERVER3 data for: " + customerNumber);
+
+        JSONObject cachedData = getCachedJson(NetworkHelper.SERVER3, customerNumber, result);
+        if (cachedData != null) {
+            result.put("SERVER3_data", cachedData);
+            return result;
+        }
+
+        try (Response response = NetworkHelper.getHedged(NetworkHelper.SERVER3, url)) {
+            if (response.code() == 200) {
+                JSONObject SERVER3Data = StreamingJsonParser.parseServer3(response.body().charStream());
+
+                // Check if SERVER 3 returned valid data
+                if (isValidSERVER3Data(SERVER3Data)) {
+                    System.out.println("✅ SERVER 3: Valid data received");
+                    result.put("SERVER3_data", SERVER3Data);
+                    LookupCache.put(NetworkHelper.SERVER3, customerNumber, SERVER3Data.toString());
+                    return result;
+                }
+                System.out.println("⚠️ SERVER 3: Invalid or empty data");
+            } else {
+                System.out.println("⚠️ SERVER 3: HTTP " + response.code());
+            }
+        } catch (Exception e) {
+            System.out.println("❌ SERVER 3 Error: " + e.getMessage());
+        }
+        return result;
+    }
+
+    // Age of a cached server result, or -1 if it came from the network
+    private static long getCacheAge(Map<String, Object> serverResult) {
+        Object age = serverResult.get("cache_age");
+        return age instanceof Long ? (Long) age : -1L;
+    }
+
+    // Wait for one parallel server request; failures come back as null
+    private static <T> T awaitServer(Future<T> future, String serverName) {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            System.out.println("⚠️ " + serverName + ": Interrupted while waiting");
+        } catch (ExecutionException e) {
+            System.out.println("❌ " + serverName + " Error: " + e.getCause());
+        }
+        return null;
+    }
+
+    // Helper method to validate SERVER 3 data
+    private static boolean isValidSERVER3Data(JSONObject SERVER3Data) {
+        if (SERVER3Data == null) return false;
+
+        try {
+            // Check if essential fields exist and are not empty
+            String customerNumber = SERVER3Data.optString("customerNumber", "").trim();
+            String customerName = SERVER3Data.optString("customerName", "").trim();
+
+            boolean hasValidData = !customerNumber.isEmpty() && !customerName.isEmpty();
+
+            if (!hasValidData) {
+                System.out.println("❌ SERVER 3: Missing essential fields (customerNumber or customerName)");
+            }
+
+            return hasValidData;
+
+        } catch (Exception e) {
+            System.out.println("❌ SERVER 3: Data validation error: " + e.getMessage());
+            return false;
+        }
+    }
+
+    // Enhanced SERVER 2 lookup with better error handling
+    public static Map<String, Object> SERVER2Lookup(String accountNumber) {
+        return NetworkMetrics.measure("SERVER2Lookup", () -> fetchSERVER2Data(accountNumber));
+    }
+
+    private static Map<String, Object> fetchSERVER2Data(String accountNumber) {
+        Map<String, Object> result = new HashMap<>();
+        String url = NetworkHelper.url(NetworkHelper.SERVER2, "/API/CustomerInformation/" + accountNumber);
+
+        System.out.println("🔍 SERVER 2: Fetching data for: " + accountNumber);
+
+        JSONObject cachedData = getCachedJson(NetworkHelper.SERVER2, accountNumber, result);
+        if (cachedData != null) {
+            result.put("SERVER2_data", cachedData);
+            return result;
+        }
+
+        try (Response response = NetworkHelper.getHedged(NetworkHelper.SERVER2, url)) {
+            if (response.code() == 200) {
+                JSONObject SERVER2Data = StreamingJsonParser.parseServer2(response.body().charStream());
+
+                // Validate SERVER 2 data
+                if (isValidSERVER2Data(SERVER2Data)) {
+                    System.out.println("✅ SERVER 2: Valid data received");
+                    result.put("SERVER2_data", SERVER2Data);
+                    LookupCache.put(NetworkHelper.SERVER2, accountNumber, SERVER2Data.toString());
+                } else {
+                    System.out.println("❌ SERVER 2: Invalid data received");
+                    result.put("error", "SERVER 2 returned invalid data");
+                }
+            } else {
+                System.out.println("❌ SERVER 2: HTTP Error: " + response.code());
+                result.put("error", "HTTP Error: " + response.code());
+            }
+        } catch (Exception e) {
+            System.out.println("❌ SERVER 2 Error: " + e.getMessage());
+            result.put("error", "SERVER 2 Error: " + e.getMessage());
+        }
+        return result;
+    }
+
+    // Helper method to validate SERVER 2 data
+    private static boolean isValidSERVER2Data(JSONObject SERVER2Data) {
+        if (SERVER2Data == null) return false;
+
+        try {
+            // Check if SERVER 2 has customerInfo array with data
+            if (SERVER2Data.has("customerInfo")) {
+                JSONArray customerInfoArray = SERVER2Data.getJSONArray("customerInfo");
+                if (customerInfoArray.length() > 0) {
+                    return true;
+                }
+            }
+
+            // Check if it has balance info
+            if (SERVER2Data.has("finalBalanceInfo") || SERVER2Data.has("balanceInfo")) {
+                return true;
+            }
+
+            System.out.println("❌ SERVER 2: No customerInfo or balance data found");
+            return false;
+
+        } catch (Exception e) {
+            System.out.println("❌ SERVER 2: Data validation error: " + e.getMessage());
+            return false;
+        }
+    }
+
+    // SERVER 2/3 only need the consumer number, which comes early in the SERVER 1 stream.
+    // They are started the moment it is parsed, while the rest of the SERVER 1 body
+    // (transactions, tokens) is still downloading.
+    public static Map<String, Object> fetchPrepaidData(String meterNumber) {
+        return fetchPrepaidData(meterNumber, null);
+    }
+
+    public static Map<String, Object> fetchPrepaidData(String meterNumber, SectionListener sections) {
+        SpeculativeLookup speculative = new SpeculativeLookup(sections);
+        Map<String, Object> SERVER1Result = SERVER1Lookup(meterNumber, speculative);
+        speculative.server1Finished();
+
+        Object prepaidAccount = SERVER1Result.get("prepaid_account");
+        if (sections != null && prepaidAccount != null) {
+            sections.onPrepaidAccount((AccountRecords.PrepaidAccount) prepaidAccount);
+        }
+        Map<String, Object> result = new HashMap<>();
+
+        result.put("meter_number", meterNumber);
+        result.put("SERVER1_data", SERVER1Result.get("SERVER1_data"));
+        result.put("prepaid_account", SERVER1Result.get("prepaid_account"));
+        result.put("consumer_number", SERVER1Result.get("consumer_number"));
+        result.put("SERVER3_data", null);
+        result.put("SERVER2_data", null);
+
+        Map<String, Long> cacheInfo = new LinkedHashMap<>();
+        if (SERVER1Result.containsKey("SERVER1_data")) {
+            cacheInfo.put(NetworkHelper.SERVER1, getCacheAge(SERVER1Result));
+        }
+        result.put("cache_info", cacheInfo);
+
+        String consumerNumber = (String) SERVER1Result.get("consumer_number");
+        if (consumerNumber != null && !SERVER1Result.containsKey("error")) {
+            // Use the corrected SERVER3Lookup which now fetches both servers
+            Map<String, Object> SERVER3Result = speculative.await(consumerNumber);
+
+            if (SERVER3Result != null && !SERVER3Result.containsKey("error")) {
+                // Check which SERVER provided the data
+                String source = (String) SERVER3Result.getOrDefault("source", "unknown");
+                System.out.println("📊 Prepaid data source: " + source);
+
+                if (SERVER3Result.containsKey("SERVER3_data")) {
+                    result.put("SERVER3_data", SERVER3Result.get("SERVER3_data"));
+                }
+                if (SERVER3Result.containsKey("SERVER2_data")) {
+                    result.put("SERVER2_data", SERVER3Result.get("SERVER2_data"));
+                }
+                result.put("postpaid_account", SERVER3Result.get("postpaid_account"));
+                cacheInfo.putAll((Map<String, Long>) SERVER3Result.get("cache_info"));
+
+                result.put("data_source", source);
+            } else {
+                System.out.println("❌ All SERVERs failed for prepaid data");
+                result.put("error", "All data sources failed");
+                if (SERVER3Result != null) {
+                    result.put("data_source", SERVER3Result.get("source"));
+                }
+            }
+        } else {
+            // SERVER 1 failed after all - its consumer number can't be trusted
+            speculative.cancel();
+            result.put("data_source", "none" + CircuitBreaker.describeUnhealthy(NetworkHelper.SERVER1_HOST));
+        }
+
+        return result;
+    }
+
+    // SERVER3Lookup started from inside the SERVER 1 stream, as soon as customerNo is parsed
+    private static class SpeculativeLookup implements Server1StreamParser.Listener {
+        private final SectionListener sections;
+        private volatile String consumerNumber;
+        private volatile Future<Map<String, Object>> future;
+        private volatile long startNanos;
+
+        SpeculativeLookup(SectionListener sections) {
+            this.sections = sections;
+        }
+
+        @Override
+        public void onConsumerNumber(String consumerNumber) {
+            this.consumerNumber = consumerNumber;
+            this.startNanos = System.nanoTime();
+            System.out.println("⚡ PREPAID: Consumer number " + consumerNumber + " parsed - starting SERVER 2/3 early");
+            // Customer pool: SERVER3Lookup waits on the server pool, so it must not run there
+            future = LookupExecutors.customers().submit(LookupContext.propagate(() -> SERVER3Lookup(consumerNumber, sections)));
+        }
+
+        void server1Finished() {
+            if (future != null) {
+                long overlapMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos);
+                System.out.println("⚡ PREPAID: SERVER 2/3 got a " + overlapMs + " ms head start on the SERVER 1 body");
+            }
+        }
+
+        // Result of the early lookup, or a normal lookup if it never started (cache hit, coalesced call)
+        Map<String, Object> await(String consumerNumber) {
+            Future<Map<String, Object>> started = future;
+            if (started == null || !consumerNumber.equals(this.consumerNumber)) {
+                cancel();
+                return SERVER3Lookup(consumerNumber, sections);
+            }
+            return awaitServer(started, "SERVER 2/3");
+        }
+
+        void cancel() {
+            Future<Map<String, Object>> started = future;
+            if (started != null) {
+                started.cancel(true);
+            }
+        }
+    }
+
+    public static Map<String, Object> fetchPostpaidData(String customerNumber) {
+        return fetchPostpaidData(customerNumber, null);
+    }
+
+    public static Map<String, Object> fetchPostpaidData(String customerNumber, SectionListener sections) {
+        Map<String, Object> result = new HashMap<>();
+        result.put("customer_number", customerNumber);
+
+        System.out.println("🔍 Fetching postpaid data for: " + customerNumber);
+
+        // Use the corrected SERVER3Lookup which now fetches both servers
+        Map<String, Object> SERVER3Result = SERVER3Lookup(customerNumber, sections);
+
+        if (SERVER3Result != null && !SERVER3Result.containsKey("error")) {
+            String source = (String) SERVER3Result.getOrDefault("source", "unknown");
+            System.out.println("📊 Postpaid data source: " + source);
+
+            // Copy all data from SERVER3Result
+            if (SERVER3Result.containsKey("SERVER3_data")) {
+                result.put("SERVER3_data", SERVER3Result.get("SERVER3_data"));
+            }
+            if (SERVER3Result.containsKey("SERVER2_data")) {
+                result.put("SERVER2_data", SERVER3Result.get("SERVER2_data"));
+            }
+            result.put("postpaid_account", SERVER3Result.get("postpaid_account"));
+
+            result.put("data_source", source);
+            result.put("cache_info", SERVER3Result.get("cache_info"));
+            System.out.println("✅ Postpaid data fetch successful");
+        } else {
+            System.out.println("❌ All SERVERs failed for postpaid data");
+            result.put("error", "All data sources failed");
+            if (SERVER3Result != null) {
+                result.put("data_source", SERVER3Result.get("source"));
+            }
+        }
+
+        return result;
+    }
+}
@@ -0,0 +1,100 @@
+package customerinfo.app;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadPoolExecutor;
+
+// Runs lookups for one screen on a small bounded pool.
+// Submitting a new lookup cancels the one in flight (threads and HTTP calls),
+// and only the most recent lookup may deliver anything to the result executor.
+public class LookupScheduler {
+
+    public interface Callback<T> {
+        void onResult(T result);
+
+        void onError(Exception e);
+    }
+
+    private static final int WORKER_THREADS = 2;
+    // Hard limit for one lookup, retries included
+    private static final long DEFAULT_DEADLINE_MS = 60000;
+
+    private final ThreadPoolExecutor workers = LookupExecutors.newPool("worker", WORKER_THREADS);
+    private final Executor resultExecutor;
+
+    private long generation;
+    private long deadlineMs = DEFAULT_DEADLINE_MS;
+    private LookupContext activeContext;
+    private Future<?> activeFuture;
+    private boolean shutdown;
+
+    // resultExecutor is where results are delivered, e.g. activity::runOnUiThread
+    public LookupScheduler(Executor resultExecutor) {
+        this.resultExecutor = resultExecutor;
+    }
+
+    public synchronized <T> void submit(Callable<T> lookup, Callback<T> callback) {
+        if (shutdown) {
+            return;
+        }
+        cancelActive();
+
+        LookupContext context = new LookupContext(++generation, deadlineMs);
+        activeContext = context;
+        activeFuture = workers.submit(() -> {
+            try {
+                T result = context.call(lookup);
+                deliver(context, () -> callback.onResult(result));
+            } catch (Exception e) {
+                if (!context.isCancelled()) {
+                    deliver(context, () -> callback.onError(e));
+                }
+            }
+        });
+    }
+
+    // Applies to lookups submitted afterwards; 0 disables the deadline
+    public synchronized void setDeadline(long deadlineMs) {
+        this.deadlineMs = deadlineMs;
+    }
+
+    // Post an intermediate update from inside a lookup; dropped if a newer lookup exists
+    public void publish(Runnable update) {
+        LookupContext context = LookupContext.current();
+        if (context != null) {
+            deliver(context, update);
+        }
+    }
+
+    private void deliver(LookupContext context, Runnable action) {
+        resultExecutor.execute(() -> {
+            if (isCurrent(context)) {
+                action.run();
+            }
+        });
+    }
+
+    private synchronized boolean isCurrent(LookupContext context) {
+        return !shutdown && !context.isCancelled() && context.getGeneration() == generation;
+    }
+
+    // Cancel the lookup in flight, if any
+    public synchronized void cancelActive() {
+        if (activeContext != null) {
+            activeContext.cancel();
+            activeContext = null;
+        }
+        if (activeFuture != null) {
+            activeFuture.cancel(true);
+            activeFuture = null;
+        }
+    }
+
+    // Call from onDestroy: cancels the active lookup and stops the workers
+    public synchronized void shutdown() {
+        shutdown = true;
+        cancelActive();
+        workers.shutdownNow();
+    }
+}
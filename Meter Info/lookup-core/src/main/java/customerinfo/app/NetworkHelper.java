@@ -0,0 +1,444 @@
+package customerinfo.app;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import javax.net.ssl.SSLContext;
+import javax.net.ssl.TrustManager;
+import javax.net.ssl.X509TrustManager;
+
+import okhttp3.Call;
+import okhttp3.Callback;
+import okhttp3.ConnectionPool;
+import okhttp3.HttpUrl;
+import okhttp3.MediaType;
+import okhttp3.OkHttpClient;
+import okhttp3.Request;
+import okhttp3.RequestBody;
+import okhttp3.Response;
+
+// Shared HTTP client for all BPDB server calls.
+// One OkHttpClient (one connection pool, one dispatcher) is shared by every lookup,
+// so repeated lookups reuse kept-alive TCP/TLS connections instead of handshaking again.
+public class NetworkHelper {
+
+    public static final String SERVER1 = "SERVER1";
+    public static final String SERVER2 = "SERVER2";
+    public static final String SERVER3 = "SERVER3";
+    public static final String METER_LOOKUP = "METER_LOOKUP";
+
+    public static final String SERVER1_HOST = "web.bpdbprepaid.gov.bd";
+    public static final String SERVER2_HOST = "billonwebapi.bpdb.gov.bd";
+    public static final String SERVER3_HOST = "miscbillapi.bpdb.gov.bd";
+
+    static final String BROWSER_USER_AGENT = "Mozilla/5.0 (Windows NT 10.0; Win64; x64) AppleWebKit/537.36";
+
+    private static final int MAX_IDLE_CONNECTIONS = 8;
+    private static final long KEEP_ALIVE_MINUTES = 5;
+
+    // Where each server's API lives; see setBaseUrl
+    private static final Map<String, String> baseUrls = new ConcurrentHashMap<>();
+    private static final Map<String, HostSettings> hostSettings = new ConcurrentHashMap<>();
+    private static final Map<String, OkHttpClient> hostClients = new ConcurrentHashMap<>();
+    private static volatile OkHttpClient baseClient;
+    private static volatile boolean hedgingEnabled = true;
+
+    static {
+        baseUrls.put(SERVER1, "http://" + SERVER1_HOST);
+        baseUrls.put(SERVER2, "https://" + SERVER2_HOST);
+        baseUrls.put(SERVER3, "https://" + SERVER3_HOST);
+        // The meter lookup is served by the SERVER2 host
+        baseUrls.put(METER_LOOKUP, "https://" + SERVER2_HOST);
+
+        // Same limits the HttpURLConnection code used; SERVER1 used to have none at all
+        hostSettings.put(SERVER1_HOST, new HostSettings(10000, 30000));
+        hostSettings.put(SERVER2_HOST, new HostSettings(10000, 15000));
+        hostSettings.put(SERVER3_HOST, new HostSettings(10000, 15000));
+    }
+
+    // Per-host connection settings
+    public static class HostSettings {
+        public final int connectTimeoutMs;
+        public final int readTimeoutMs;
+
+        public HostSettings(int connectTimeoutMs, int readTimeoutMs) {
+            this.connectTimeoutMs = connectTimeoutMs;
+            this.readTimeoutMs = readTimeoutMs;
+        }
+    }
+
+    private NetworkHelper() {
+    }
+
+    // Point one server somewhere else, e.g. "http://10.0.2.2:8080" for a replay server.
+    // Paths stay the same; only scheme, host and port change.
+    public static void setBaseUrl(String server, String baseUrl) {
+        if (!baseUrls.containsKey(server)) {
+            throw new IllegalArgumentException("Unknown server: " + server);
+        }
+        HttpUrl parsed = HttpUrl.parse(baseUrl);
+        if (parsed == null) {
+            throw new IllegalArgumentException("Not an http(s) URL: " + baseUrl);
+        }
+        String url = baseUrl.endsWith("/") ? baseUrl.substring(0, baseUrl.length() - 1) : baseUrl;
+        baseUrls.put(server, url);
+        System.out.println("🌐 NETWORK: " + server + " -> " + url);
+    }
+
+    // Every server behind one base URL
+    public static void setBaseUrlForAll(String baseUrl) {
+        for (String server : new ArrayList<>(baseUrls.keySet())) {
+            setBaseUrl(server, baseUrl);
+        }
+    }
+
+    public static String getBaseUrl(String server) {
+        return baseUrls.get(server);
+    }
+
+    // Full URL of a server API path, e.g. url(SERVER2, "/API/CustomerInformation/123")
+    public static String url(String server, String path) {
+        return baseUrls.get(server) + path;
+    }
+
+    // Override the settings for one host (takes effect for the next call)
+    public static void configureHost(String host, HostSettings settings) {
+        String key = host.toLowerCase();
+        hostSettings.put(key, settings);
+        hostClients.remove(key);
+    }
+
+    public static HostSettings getHostSettings(String host) {
+        return hostSettings.get(host.toLowerCase());
+    }
+
+    public static Map<String, HostSettings> getConfiguredHosts() {
+        return hostSettings;
+    }
+
+    // The shared client; every per-host client is derived from it and shares its pool
+    public static OkHttpClient getClient() {
+        OkHttpClient client = baseClient;
+        if (client == null) {
+            synchronized (NetworkHelper.class) {
+                client = baseClient;
+                if (client == null) {
+                    client = buildBaseClient();
+                    baseClient = client;
+                }
+            }
+        }
+        return client;
+    }
+
+    private static OkHttpClient buildBaseClient() {
+        OkHttpClient.Builder builder = new OkHttpClient.Builder()
+                .connectionPool(new ConnectionPool(MAX_IDLE_CONNECTIONS, KEEP_ALIVE_MINUTES, TimeUnit.MINUTES))
+                .retryOnConnectionFailure(true)
+                .followRedirects(true)
+                // Per-server timings for NetworkMetrics, plus whether the first lookup per host
+                // found a pre-warmed connection
+                .eventListenerFactory(call -> NetworkMetrics.newCallListener()
+                        .plus(ConnectionWarmer.newFirstCallListener()))
+                // Per-host rate and in-flight limits; first, so queue time isn't counted as latency
+                .addInterceptor(new GovernorInterceptor())
+                // Per-call timeouts from observed latency, capped by HostSettings
+                .addInterceptor(new AdaptiveTimeoutInterceptor())
+                // Scrubbed copies of the responses for the replay server, only while recording
+                .addInterceptor(new FixtureRecorder())
+                // gzip/deflate on every call, with wire vs decoded byte counts in TransferStats
+                .addInterceptor(new CompressionInterceptor());
+
+        // BPDB servers have certificate issues - keep trusting them like the old HttpsURLConnection setup did
+        try {
+            X509TrustManager trustAll = new X509TrustManager() {
+                public java.security.cert.X509Certificate[] getAcceptedIssuers() {
+                    return new java.security.cert.X509Certificate[0];
+                }
+
+                public void checkClientTrusted(java.security.cert.X509Certificate[] certs, String authType) {
+                }
+
+                public void checkServerTrusted(java.security.cert.X509Certificate[] certs, String authType) {
+                }
+            };
+
+            SSLContext sc = SSLContext.getInstance("SSL");
+            sc.init(null, new TrustManager[]{trustAll}, new java.security.SecureRandom());
+            builder.sslSocketFactory(sc.getSocketFactory(), trustAll);
+            builder.hostnameVerifier((hostname, session) -> true);
+        } catch (Exception e) {
+            e.printStackTrace();
+        }
+
+        return builder.build();
+    }
+
+    private static OkHttpClient clientFor(HttpUrl url) {
+        String host = url.host();
+        OkHttpClient client = hostClients.get(host);
+        if (client != null) {
+            return client;
+        }
+
+        HostSettings settings = hostSettings.get(host);
+        if (settings == null) {
+            client = getClient();
+        } else {
+            // newBuilder() keeps the shared pool and dispatcher
+            client = getClient().newBuilder()
+                    .connectTimeout(settings.connectTimeoutMs, TimeUnit.MILLISECONDS)
+                    .readTimeout(settings.readTimeoutMs, TimeUnit.MILLISECONDS)
+                    .build();
+        }
+        hostClients.put(host, client);
+        return client;
+    }
+
+    // Hedged GETs can be switched off, e.g. to save data on a metered link
+    public static void setHedgingEnabled(boolean enabled) {
+        hedgingEnabled = enabled;
+    }
+
+    public static boolean isHedgingEnabled() {
+        return hedgingEnabled;
+    }
+
+    // GET with JSON accept header, retried on transient failures; caller must close the response
+    public static Response get(String server, String url) throws IOException {
+        Request request = buildGet(server, url);
+        return RetryPolicy.execute(server, () -> execute(request));
+    }
+
+    // Idempotent GET that sends one duplicate if the first hasn't answered by the
+    // server's p95 latency; whichever answers first wins and the other is cancelled.
+    // Caller must close the response.
+    public static Response getHedged(String server, String url) throws IOException {
+        Request request = buildGet(server, url);
+        return RetryPolicy.execute(server, () -> {
+            long hedgeDelayMs = LatencyTracker.forServer(server).getHedgeDelayMs();
+            if (!hedgingEnabled || hedgeDelayMs < 0) {
+                return execute(request);
+            }
+            return new HedgedCall(request, hedgeDelayMs).execute();
+        });
+    }
+
+    private static Request buildGet(String server, String url) {
+        return new Request.Builder()
+                .url(url)
+                .header("User-Agent", BROWSER_USER_AGENT)
+                .header("Accept", "application/json")
+                .tag(String.class, server)
+                .get()
+                .build();
+    }
+
+    // POST with extra headers; caller must close the response.
+    // idempotent: the POST only reads data (e.g. SERVER1's token-check action), so it may be retried
+    public static Response post(String server, String url, Map<String, String> headers,
+                                String body, String contentType, boolean idempotent) throws IOException {
+        Request.Builder builder = new Request.Builder()
+                .url(url)
+                .tag(String.class, server)
+                .post(RequestBody.create(body, MediaType.parse(contentType)));
+
+        for (Map.Entry<String, String> header : headers.entrySet()) {
+            builder.header(header.getKey(), header.getValue());
+        }
+        Request request = builder.build();
+        if (!idempotent) {
+            return execute(request);
+        }
+        return RetryPolicy.execute(server, () -> execute(request));
+    }
+
+    private static Response execute(Request request) throws IOException {
+        CircuitBreaker breaker = CircuitBreaker.forUrl(request.url());
+        // Skip hosts that are known to be down instead of waiting for the timeouts
+        boolean trial = breaker.checkAllowed();
+
+        Call call = null;
+        try {
+            call = newCall(request);
+            Response response = call.execute();
+            recordOutcome(breaker, response);
+            return response;
+        } catch (IOException e) {
+            recordFailure(breaker, call, trial, e);
+            throw e;
+        } catch (RuntimeException e) {
+            if (trial) {
+                breaker.releaseTrial();
+            }
+            throw e;
+        }
+    }
+
+    // New call for the current lookup
+    private static Call newCall(Request request) throws IOException {
+        Call call = clientFor(request.url()).newCall(request);
+
+        // Let the current lookup cancel this call if it gets superseded
+        LookupContext context = LookupContext.current();
+        if (context != null) {
+            long remainingMs = context.getRemainingMillis();
+            if (remainingMs <= 0) {
+                throw new InterruptedIOException("Lookup deadline exceeded");
+            }
+            if (remainingMs != Long.MAX_VALUE) {
+                // Whole call, body included, must finish before the lookup's deadline
+                call.timeout().timeout(remainingMs, TimeUnit.MILLISECONDS);
+            }
+            context.register(call);
+        }
+        return call;
+    }
+
+    private static void recordOutcome(CircuitBreaker breaker, Response response) {
+        if (response.code() >= 500) {
+            breaker.recordFailure();
+        } else {
+            breaker.recordSuccess();
+        }
+    }
+
+    // call is null when it failed before it was made (lookup deadline already passed)
+    private static void recordFailure(CircuitBreaker breaker, Call call, boolean trial, IOException e) {
+        // A cancelled or rate-limited call says nothing about the server
+        if (call != null && !call.isCanceled() && !(e instanceof HostGovernor.HostLimitException)) {
+            breaker.recordFailure();
+        } else if (trial) {
+            breaker.releaseTrial();
+        }
+    }
+
+    // The original call plus at most one hedged duplicate, racing for the first answer
+    private static class HedgedCall implements Callback {
+        private final Request request;
+        private final long hedgeDelayMs;
+        private final CircuitBreaker breaker;
+        private final LatencyTracker tracker;
+        private final BlockingQueue<Object> outcomes = new LinkedBlockingQueue<>();
+        private final List<Call> calls = new ArrayList<>();
+        private Call trialCall;
+        private Call winner;
+
+        HedgedCall(Request request, long hedgeDelayMs) {
+            this.request = request;
+            this.hedgeDelayMs = hedgeDelayMs;
+            this.breaker = CircuitBreaker.forUrl(request.url());
+            this.tracker = LatencyTracker.forServer(request.tag(String.class));
+        }
+
+        Response execute() throws IOException {
+            start();
+            try {
+                Object first = outcomes.poll(hedgeDelayMs, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    System.out.println("⏱️ HEDGE: " + request.tag(String.class) + " slower than "
+                            + hedgeDelayMs + " ms, sending a second request");
+                    tracker.hedgeSent();
+                    try {
+                        start();
+                    } catch (IOException e) {
+                        // Breaker opened meanwhile - keep waiting for the original
+                    }
+                    first = outcomes.take();
+                }
+
+                // A failure only counts once every attempt has failed
+                int pending;
+                synchronized (this) {
+                    pending = calls.size() - 1;
+                }
+                while (first instanceof IOException && pending-- > 0) {
+                    first = outcomes.take();
+                }
+
+                if (first instanceof IOException) {
+                    throw (IOException) first;
+                }
+                return (Response) first;
+            } catch (InterruptedException e) {
+                cancelAll();
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("Hedged request interrupted");
+            }
+        }
+
+        private void start() throws IOException {
+            boolean trial = breaker.checkAllowed();
+            Call call;
+            try {
+                call = newCall(request);
+            } catch (IOException e) {
+                recordFailure(breaker, null, trial, e);
+                throw e;
+            }
+            synchronized (this) {
+                calls.add(call);
+                if (trial) {
+                    trialCall = call;
+                }
+            }
+            call.enqueue(this);
+        }
+
+        @Override
+        public void onResponse(Call call, Response response) {
+            recordOutcome(breaker, response);
+            synchronized (this) {
+                if (winner != null) {
+                    // Lost the race
+                    response.close();
+                    return;
+                }
+                winner = call;
+                if (calls.size() > 1 && call == calls.get(1)) {
+                    tracker.hedgeWon();
+                }
+                for (Call other : calls) {
+                    if (other != call) {
+                        other.cancel();
+                    }
+                }
+            }
+            outcomes.add(response);
+        }
+
+        @Override
+        public void onFailure(Call call, IOException e) {
+            boolean trial;
+            synchronized (this) {
+                trial = call == trialCall;
+            }
+            recordFailure(breaker, call, trial, e);
+            synchronized (this) {
+                if (winner != null) {
+                    return;
+                }
+            }
+            outcomes.add(e);
+        }
+
+        private synchronized void cancelAll() {
+            for (Call call : calls) {
+                call.cancel();
+            }
+            // Nobody will read a response that already arrived
+            for (Object outcome : outcomes) {
+                if (outcome instanceof Response) {
+                    ((Response) outcome).close();
+                }
+            }
+        }
+    }
+}
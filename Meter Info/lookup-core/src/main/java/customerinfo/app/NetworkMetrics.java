@@ -0,0 +1,450 @@
+package customerinfo.app;
+
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.Writer;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.Proxy;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.Supplier;
+
+import okhttp3.Call;
+import okhttp3.Connection;
+import okhttp3.EventListener;
+import okhttp3.HttpUrl;
+import okhttp3.Protocol;
+import okhttp3.Response;
+
+// Numbers on how the servers actually perform, per server tag (SERVER1, SERVER2, ...).
+// Every HTTP attempt is timed by an OkHttp EventListener: DNS, connect (TCP + TLS),
+// time to first byte and total time go into fixed-bucket histograms, together with
+// response sizes, status codes and error classes. Time spent waiting for HostGovernor's
+// limits has its own histogram, so it never shows up as server latency. The lookup functions themselves
+// (SERVER1Lookup, SERVER3Lookup, ...) are timed end to end, cache hits included.
+// Everything can be shown in the app (report()) or written to a JSON file (dump()).
+public class NetworkMetrics {
+
+    // Upper bounds of the latency buckets in ms; the last bucket is open-ended
+    private static final long[] LATENCY_BOUNDS_MS = {10, 25, 50, 100, 250, 500, 1000, 2500, 5000, 10000, 30000};
+    // Upper bounds of the size buckets in bytes
+    private static final long[] SIZE_BOUNDS = {1024, 4096, 16384, 65536, 262144, 1048576, 4194304};
+
+    private static final Map<String, ServerMetrics> servers = new ConcurrentHashMap<>();
+    private static final Map<String, OperationMetrics> operations = new ConcurrentHashMap<>();
+    private static volatile long startedAt = System.currentTimeMillis();
+
+    // Counts per bucket plus count/sum/min/max; lock-free so listeners never block calls
+    public static class Histogram {
+        private final long[] bounds;
+        private final String unit;
+        private final AtomicLongArray buckets;
+        private final AtomicLong count = new AtomicLong();
+        private final AtomicLong sum = new AtomicLong();
+        private final AtomicLong min = new AtomicLong(Long.MAX_VALUE);
+        private final AtomicLong max = new AtomicLong();
+
+        Histogram(long[] bounds, String unit) {
+            this.bounds = bounds;
+            this.unit = unit;
+            this.buckets = new AtomicLongArray(bounds.length + 1);
+        }
+
+        void record(long value) {
+            if (value < 0) {
+                return;
+            }
+            int bucket = 0;
+            while (bucket < bounds.length && value > bounds[bucket]) {
+                bucket++;
+            }
+            buckets.incrementAndGet(bucket);
+            count.incrementAndGet();
+            sum.addAndGet(value);
+            min.accumulateAndGet(value, Math::min);
+            max.accumulateAndGet(value, Math::max);
+        }
+
+        public long getCount() {
+            return count.get();
+        }
+
+        public long getMean() {
+            long n = count.get();
+            return n > 0 ? sum.get() / n : 0;
+        }
+
+        public long getMax() {
+            return max.get();
+        }
+
+        // Upper bound of the bucket holding the given percentile (max for the open bucket)
+        public long getPercentile(int percentile) {
+            long n = count.get();
+            if (n == 0) {
+                return 0;
+            }
+            long rank = (long) Math.ceil(n * percentile / 100.0);
+            long seen = 0;
+            for (int i = 0; i < buckets.length(); i++) {
+                seen += buckets.get(i);
+                if (seen >= rank) {
+                    return i < bounds.length ? Math.min(bounds[i], max.get()) : max.get();
+                }
+            }
+            return max.get();
+        }
+
+        // e.g. "n=12 mean 180 p50 250 p95 500 max 431 ms"
+        String format() {
+            if (getCount() == 0) {
+                return "-";
+            }
+            return "n=" + getCount() + " mean " + getMean() + " p50 " + getPercentile(50)
+                    + " p95 " + getPercentile(95) + " max " + getMax() + " " + unit;
+        }
+
+        JSONObject toJson() throws JSONException {
+            JSONObject json = new JSONObject();
+            json.put("count", getCount());
+            json.put("mean", getMean());
+            json.put("min", getCount() > 0 ? min.get() : 0);
+            json.put("max", getMax());
+            json.put("p50", getPercentile(50));
+            json.put("p95", getPercentile(95));
+            json.put("p99", getPercentile(99));
+            JSONArray bucketsJson = new JSONArray();
+            for (int i = 0; i < buckets.length(); i++) {
+                JSONObject bucket = new JSONObject();
+                bucket.put("le", i < bounds.length ? String.valueOf(bounds[i]) : "+Inf");
+                bucket.put("count", buckets.get(i));
+                bucketsJson.put(bucket);
+            }
+            json.put("buckets", bucketsJson);
+            return json;
+        }
+    }
+
+    // HTTP attempts to one server
+    public static class ServerMetrics {
+        // From the call starting to HostGovernor letting it go to the network
+        public final Histogram queue = new Histogram(LATENCY_BOUNDS_MS, "ms");
+        public final Histogram dns = new Histogram(LATENCY_BOUNDS_MS, "ms");
+        public final Histogram connect = new Histogram(LATENCY_BOUNDS_MS, "ms");
+        public final Histogram ttfb = new Histogram(LATENCY_BOUNDS_MS, "ms");
+        public final Histogram total = new Histogram(LATENCY_BOUNDS_MS, "ms");
+        public final Histogram responseBytes = new Histogram(SIZE_BOUNDS, "B");
+        private final Map<String, AtomicLong> statusCodes = new ConcurrentHashMap<>();
+        private final Map<String, AtomicLong> errors = new ConcurrentHashMap<>();
+        private final AtomicLong reusedConnections = new AtomicLong();
+
+        public Map<String, Long> getStatusCodes() {
+            return snapshot(statusCodes);
+        }
+
+        // Exception class name -> count
+        public Map<String, Long> getErrors() {
+            return snapshot(errors);
+        }
+
+        public long getReusedConnections() {
+            return reusedConnections.get();
+        }
+    }
+
+    // One lookup function, cache hits and coalesced calls included
+    public static class OperationMetrics {
+        public final Histogram duration = new Histogram(LATENCY_BOUNDS_MS, "ms");
+        private final AtomicLong succeeded = new AtomicLong();
+        private final AtomicLong failed = new AtomicLong();
+
+        public long getSucceeded() {
+            return succeeded.get();
+        }
+
+        public long getFailed() {
+            return failed.get();
+        }
+    }
+
+    private NetworkMetrics() {
+    }
+
+    public static ServerMetrics forServer(String server) {
+        ServerMetrics metrics = servers.get(server);
+        if (metrics == null) {
+            servers.putIfAbsent(server, new ServerMetrics());
+            metrics = servers.get(server);
+        }
+        return metrics;
+    }
+
+    public static OperationMetrics forOperation(String operation) {
+        OperationMetrics metrics = operations.get(operation);
+        if (metrics == null) {
+            operations.putIfAbsent(operation, new OperationMetrics());
+            metrics = operations.get(operation);
+        }
+        return metrics;
+    }
+
+    // Time one lookup function; a result with an "error" key counts as failed
+    static Map<String, Object> measure(String operation, Supplier<Map<String, Object>> lookup) {
+        OperationMetrics metrics = forOperation(operation);
+        long start = System.nanoTime();
+        Map<String, Object> result = null;
+        try {
+            result = lookup.get();
+            return result;
+        } finally {
+            metrics.duration.record(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+            if (result != null && !result.containsKey("error")) {
+                metrics.succeeded.incrementAndGet();
+            } else {
+                metrics.failed.incrementAndGet();
+            }
+        }
+    }
+
+    // Listener for one call; calls without a server tag (probes, warm-ups) are ignored
+    static EventListener newCallListener() {
+        return new CallListener();
+    }
+
+    private static class CallListener extends EventListener {
+        private ServerMetrics metrics;
+        private long callStart;
+        // When the call got past the interceptors to its first network step, 0 until then
+        private long attemptStart;
+        private long dnsStart;
+        private long connectStart;
+        private boolean connected;
+
+        @Override
+        public void callStart(Call call) {
+            String server = call.request().tag(String.class);
+            if (server != null) {
+                metrics = forServer(server);
+                callStart = System.nanoTime();
+            }
+        }
+
+        // The first network event of a call: the interceptors (HostGovernor's queue included)
+        // are done, so latency is measured from here
+        private void networkStarted() {
+            if (attemptStart == 0) {
+                attemptStart = System.nanoTime();
+                if (metrics != null) {
+                    metrics.queue.record(TimeUnit.NANOSECONDS.toMillis(attemptStart - callStart));
+                }
+            }
+        }
+
+        @Override
+        public void proxySelectStart(Call call, HttpUrl url) {
+            networkStarted();
+        }
+
+        @Override
+        public void dnsStart(Call call, String domainName) {
+            networkStarted();
+            dnsStart = System.nanoTime();
+        }
+
+        @Override
+        public void dnsEnd(Call call, String domainName, List<InetAddress> inetAddressList) {
+            if (metrics != null) {
+                metrics.dns.record(elapsedMs(dnsStart));
+            }
+        }
+
+        @Override
+        public void connectStart(Call call, InetSocketAddress inetSocketAddress, Proxy proxy) {
+            networkStarted();
+            connectStart = System.nanoTime();
+            connected = true;
+        }
+
+        @Override
+        public void connectEnd(Call call, InetSocketAddress inetSocketAddress, Proxy proxy, Protocol protocol) {
+            if (metrics != null) {
+                metrics.connect.record(elapsedMs(connectStart));
+            }
+        }
+
+        @Override
+        public void connectionAcquired(Call call, Connection connection) {
+            networkStarted();
+            if (metrics != null && !connected) {
+                metrics.reusedConnections.incrementAndGet();
+            }
+        }
+
+        @Override
+        public void responseHeadersStart(Call call) {
+            if (metrics != null) {
+                metrics.ttfb.record(elapsedMs(attemptStart));
+            }
+        }
+
+        @Override
+        public void responseHeadersEnd(Call call, Response response) {
+            if (metrics != null) {
+                increment(metrics.statusCodes, String.valueOf(response.code()));
+            }
+        }
+
+        @Override
+        public void responseBodyEnd(Call call, long byteCount) {
+            if (metrics != null) {
+                metrics.responseBytes.record(byteCount);
+            }
+        }
+
+        @Override
+        public void callEnd(Call call) {
+            if (metrics != null && attemptStart != 0) {
+                metrics.total.record(elapsedMs(attemptStart));
+            }
+        }
+
+        @Override
+        public void callFailed(Call call, IOException ioe) {
+            if (metrics != null) {
+                // A call HostGovernor turned away never reached the server: no latency to record
+                if (attemptStart != 0) {
+                    metrics.total.record(elapsedMs(attemptStart));
+                }
+                increment(metrics.errors, call.isCanceled() && ioe instanceof InterruptedIOException ?
+                        "Canceled" : ioe.getClass().getSimpleName());
+            }
+        }
+
+        private static long elapsedMs(long startNanos) {
+            return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos);
+        }
+    }
+
+    private static void increment(Map<String, AtomicLong> counters, String key) {
+        AtomicLong counter = counters.get(key);
+        if (counter == null) {
+            counters.putIfAbsent(key, new AtomicLong());
+            counter = counters.get(key);
+        }
+        counter.incrementAndGet();
+    }
+
+    private static Map<String, Long> snapshot(Map<String, AtomicLong> counters) {
+        Map<String, Long> copy = new TreeMap<>();
+        for (Map.Entry<String, AtomicLong> entry : counters.entrySet()) {
+            copy.put(entry.getKey(), entry.getValue().get());
+        }
+        return copy;
+    }
+
+    public static Map<String, ServerMetrics> getServers() {
+        return new TreeMap<>(servers);
+    }
+
+    public static Map<String, OperationMetrics> getOperations() {
+        return new TreeMap<>(operations);
+    }
+
+    public static void reset() {
+        servers.clear();
+        operations.clear();
+        startedAt = System.currentTimeMillis();
+    }
+
+    // Human-readable report for the stats screen
+    public static String report() {
+        StringBuilder report = new StringBuilder();
+        report.append("📊 Since ").append(LookupCache.formatAge(System.currentTimeMillis() - startedAt))
+                .append(" ago\n");
+
+        for (Map.Entry<String, OperationMetrics> entry : getOperations().entrySet()) {
+            OperationMetrics metrics = entry.getValue();
+            report.append("\n🔍 ").append(entry.getKey()).append(": ")
+                    .append(metrics.getSucceeded()).append(" ok, ")
+                    .append(metrics.getFailed()).append(" failed\n")
+                    .append("   time    ").append(metrics.duration.format()).append("\n");
+        }
+
+        for (Map.Entry<String, ServerMetrics> entry : getServers().entrySet()) {
+            ServerMetrics metrics = entry.getValue();
+            report.append("\n🌐 ").append(entry.getKey()).append(" (")
+                    .append(metrics.total.getCount()).append(" requests, ")
+                    .append(metrics.getReusedConnections()).append(" on reused connections)\n")
+                    .append("   queue   ").append(metrics.queue.format()).append("\n")
+                    .append("   dns     ").append(metrics.dns.format()).append("\n")
+                    .append("   connect ").append(metrics.connect.format()).append("\n")
+                    .append("   ttfb    ").append(metrics.ttfb.format()).append("\n")
+                    .append("   total   ").append(metrics.total.format()).append("\n")
+                    .append("   size    ").append(metrics.responseBytes.format()).append("\n")
+                    .append("   status  ").append(metrics.getStatusCodes()).append("\n");
+            if (!metrics.getErrors().isEmpty()) {
+                report.append("   errors  ").append(metrics.getErrors()).append("\n");
+            }
+        }
+        return report.toString();
+    }
+
+    public static JSONObject toJson() throws JSONException {
+        JSONObject json = new JSONObject();
+        json.put("startedAt", startedAt);
+        json.put("dumpedAt", System.currentTimeMillis());
+
+        JSONObject operationsJson = new JSONObject();
+        for (Map.Entry<String, OperationMetrics> entry : getOperations().entrySet()) {
+            OperationMetrics metrics = entry.getValue();
+            JSONObject operation = new JSONObject();
+            operation.put("succeeded", metrics.getSucceeded());
+            operation.put("failed", metrics.getFailed());
+            operation.put("durationMs", metrics.duration.toJson());
+            operationsJson.put(entry.getKey(), operation);
+        }
+        json.put("operations", operationsJson);
+
+        JSONObject serversJson = new JSONObject();
+        for (Map.Entry<String, ServerMetrics> entry : getServers().entrySet()) {
+            ServerMetrics metrics = entry.getValue();
+            JSONObject server = new JSONObject();
+            server.put("queueMs", metrics.queue.toJson());
+            server.put("dnsMs", metrics.dns.toJson());
+            server.put("connectMs", metrics.connect.toJson());
+            server.put("ttfbMs", metrics.ttfb.toJson());
+            server.put("totalMs", metrics.total.toJson());
+            server.put("responseBytes", metrics.responseBytes.toJson());
+            server.put("reusedConnections", metrics.getReusedConnections());
+            server.put("statusCodes", new JSONObject(metrics.getStatusCodes()));
+            server.put("errors", new JSONObject(metrics.getErrors()));
+            serversJson.put(entry.getKey(), server);
+        }
+        json.put("servers", serversJson);
+        return json;
+    }
+
+    // Write the metrics as JSON into dir; returns the file
+    public static File dump(File dir) throws IOException {
+        File file = new File(dir, "network_metrics_" + System.currentTimeMillis() + ".json");
+        try (Writer writer = new FileWriter(file)) {
+            writer.write(toJson().toString(2));
+        } catch (JSONException e) {
+            throw new IOException("Could not encode metrics", e);
+        }
+        System.out.println("📊 METRICS: Dumped to " + file.getAbsolutePath());
+        return file;
+    }
+}
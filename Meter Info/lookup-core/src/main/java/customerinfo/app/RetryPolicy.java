@@ -0,0 +1,121 @@
+package customerinfo.app;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.net.SocketTimeoutException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import javax.net.ssl.SSLException;
+
+import okhttp3.Response;
+
+// Retries idempotent reads after transient failures: connection resets, read/connect
+// timeouts, dropped streams and HTTP 502/503/504.
+// Backoff is exponential with full jitter (a random wait between 0 and base * 2^attempt),
+// so phones that lost the same cell tower don't all retry at the same moment.
+// A retry is only made if its wait still fits in the time budget: the lookup's deadline
+// (LookupContext) or, outside a lookup, MAX_ELAPSED_MS from the first attempt.
+public class RetryPolicy {
+
+    // One attempt of a request; caller must close the response
+    interface Attempt {
+        Response run() throws IOException;
+    }
+
+    private static final int MAX_ATTEMPTS = 3;
+    private static final long BASE_DELAY_MS = 300;
+    private static final long MAX_DELAY_MS = 3000;
+    private static final long MAX_ELAPSED_MS = 30000;
+    // An attempt with less time left than this would just time out
+    private static final long MIN_ATTEMPT_MS = 1000;
+
+    private RetryPolicy() {
+    }
+
+    static Response execute(String server, Attempt attempt) throws IOException {
+        long start = System.nanoTime();
+
+        for (int attemptNumber = 1; ; attemptNumber++) {
+            Response response = null;
+            IOException failure = null;
+
+            try {
+                response = attempt.run();
+                if (!isRetryableStatus(response.code())) {
+                    return response;
+                }
+            } catch (IOException e) {
+                if (!isRetryable(e)) {
+                    throw e;
+                }
+                failure = e;
+            }
+
+            long delayMs = backoffMillis(attemptNumber);
+            if (attemptNumber >= MAX_ATTEMPTS || !fitsBudget(start, delayMs) || !acquireRetry()) {
+                // Out of attempts or time: hand back what the last attempt got
+                if (failure != null) {
+                    throw failure;
+                }
+                return response;
+            }
+
+            String reason = failure != null ? failure.toString() : "HTTP " + response.code();
+            if (response != null) {
+                response.close();
+            }
+            System.out.println("🔁 RETRY: " + server + " attempt " + (attemptNumber + 1) + " in "
+                    + delayMs + " ms after " + reason);
+            sleep(delayMs);
+        }
+    }
+
+    static boolean isRetryableStatus(int code) {
+        return code == 502 || code == 503 || code == 504;
+    }
+
+    static boolean isRetryable(IOException e) {
+        // Retrying a rate-limited call would only add to the queue it was turned away from
+        if (e instanceof CircuitBreaker.CircuitOpenException || e instanceof HostGovernor.HostLimitException
+                || e instanceof SSLException) {
+            return false;
+        }
+        LookupContext context = LookupContext.current();
+        if ((context != null && context.isCancelled()) || Thread.currentThread().isInterrupted()) {
+            return false;
+        }
+        // Socket timeouts are transient; any other interruption is a cancel or the deadline
+        return !(e instanceof InterruptedIOException) || e instanceof SocketTimeoutException;
+    }
+
+    // Full jitter: uniform in [0, min(cap, base * 2^(attempt - 1))]
+    static long backoffMillis(int attemptNumber) {
+        long ceiling = Math.min(MAX_DELAY_MS, BASE_DELAY_MS << Math.min(attemptNumber - 1, 10));
+        return ThreadLocalRandom.current().nextLong(ceiling + 1);
+    }
+
+    private static boolean fitsBudget(long start, long delayMs) {
+        long needed = delayMs + MIN_ATTEMPT_MS;
+        long elapsed = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        if (elapsed + needed > MAX_ELAPSED_MS) {
+            return false;
+        }
+        LookupContext context = LookupContext.current();
+        return context == null || context.getRemainingMillis() > needed;
+    }
+
+    private static boolean acquireRetry() {
+        LookupContext context = LookupContext.current();
+        return context == null || context.tryAcquireRetry();
+    }
+
+    private static void sleep(long delayMs) throws IOException {
+        try {
+            Thread.sleep(delayMs);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Retry interrupted");
+        }
+    }
+}
@@ -0,0 +1,246 @@
+package customerinfo.app;
+
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import java.io.IOException;
+import java.io.PushbackReader;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+// Incremental parser for the SERVER 1 token-check response.
+// The body is a React Server Components stream: one row per line, each prefixed
+// with its row id, e.g.
+//   0:["$@1",["nvIrYbiinJSZPzKb__tJP",null]]
+//   1:{"mCustomerData":{...},"mOrderData":{...}}
+// Rows are read from the socket as they arrive. Row 1 is walked once with a streaming
+// JSON reader, which picks out the consumer number, the customer record and every
+// recharge transaction in a single pass. Reading stops as soon as row 1 is complete.
+public class Server1StreamParser {
+
+    private static final String DATA_ROW = "1";
+
+    // Callbacks fire while the body is still downloading
+    public interface Listener {
+        default void onConsumerNumber(String consumerNumber) {
+        }
+
+        default void onCustomerRecord(Map<String, String> customerRecord) {
+        }
+
+        default void onTransaction(Map<String, String> transaction) {
+        }
+    }
+
+    // Everything the app uses from a SERVER 1 response
+    public static class Result {
+        // First "customerNo" in the stream, or null
+        public final String consumerNumber;
+        // mCustomerData.result with {"_text": ...} wrappers removed, or null
+        public final Map<String, String> customerRecord;
+        // Recharge orders in stream order; raw field names (date, orderNo, grossAmount, tokens, ...)
+        public final List<Map<String, String>> transactions;
+
+        Result(String consumerNumber, Map<String, String> customerRecord, List<Map<String, String>> transactions) {
+            this.consumerNumber = consumerNumber;
+            this.customerRecord = customerRecord;
+            this.transactions = Collections.unmodifiableList(transactions);
+        }
+
+        public boolean isEmpty() {
+            return consumerNumber == null && customerRecord == null && transactions.isEmpty();
+        }
+
+        // Compact JSON form, used by LookupCache
+        public String toJson() throws JSONException {
+            JSONObject json = new JSONObject();
+            json.put("consumerNumber", consumerNumber != null ? consumerNumber : JSONObject.NULL);
+            if (customerRecord != null) {
+                json.put("customerRecord", new JSONObject(customerRecord));
+            }
+            JSONArray orders = new JSONArray();
+            for (Map<String, String> transaction : transactions) {
+                orders.put(new JSONObject(transaction));
+            }
+            json.put("transactions", orders);
+            return json.toString();
+        }
+
+        public static Result fromJson(String payload) throws JSONException {
+            JSONObject json = new JSONObject(payload);
+            String consumerNumber = json.isNull("consumerNumber") ? null : json.getString("consumerNumber");
+            JSONObject record = json.optJSONObject("customerRecord");
+
+            List<Map<String, String>> transactions = new ArrayList<>();
+            JSONArray orders = json.optJSONArray("transactions");
+            for (int i = 0; orders != null && i < orders.length(); i++) {
+                transactions.add(toStringMap(orders.getJSONObject(i)));
+            }
+            return new Result(consumerNumber, record != null ? toStringMap(record) : null, transactions);
+        }
+
+        private static Map<String, String> toStringMap(JSONObject object) throws JSONException {
+            Map<String, String> map = new HashMap<>();
+            Iterator<String> keys = object.keys();
+            while (keys.hasNext()) {
+                String key = keys.next();
+                map.put(key, object.getString(key));
+            }
+            return map;
+        }
+    }
+
+    private final Listener listener;
+    private String consumerNumber;
+    private Map<String, String> customerRecord;
+    private final List<Map<String, String>> transactions = new ArrayList<>();
+
+    private Server1StreamParser(Listener listener) {
+        this.listener = listener;
+    }
+
+    public static Result parse(Reader body) throws IOException {
+        return parse(body, null);
+    }
+
+    public static Result parse(Reader body, Listener listener) throws IOException {
+        Server1StreamParser parser = new Server1StreamParser(listener != null ? listener : new Listener() {
+        });
+        parser.readRows(new PushbackReader(body, 1));
+        return new Result(parser.consumerNumber, parser.customerRecord, parser.transactions);
+    }
+
+    // Walk the stream row by row until the data row has been parsed
+    private void readRows(PushbackReader in) throws IOException {
+        StringBuilder rowId = new StringBuilder();
+        int c;
+
+        while ((c = in.read()) != -1) {
+            if (c == '\n' || c == '\r') {
+                rowId.setLength(0);
+                continue;
+            }
+
+            if (c != ':') {
+                rowId.append((char) c);
+                if (rowId.length() > 8) {
+                    // Not a row prefix - skip the rest of this line
+                    skipLine(in);
+                    rowId.setLength(0);
+                }
+                continue;
+            }
+
+            int next = in.read();
+            if (next == -1) {
+                return;
+            }
+            in.unread(next);
+
+            if (DATA_ROW.equals(rowId.toString()) && next == '{') {
+                readDataRow(in);
+                // Nothing after the data row is needed
+                return;
+            }
+
+            skipLine(in);
+            rowId.setLength(0);
+        }
+    }
+
+    private static void skipLine(Reader in) throws IOException {
+        int c;
+        while ((c = in.read()) != -1 && c != '\n') {
+            // skip
+        }
+    }
+
+    private void readDataRow(Reader in) throws IOException {
+        // Not closed here - closing would close the response body under the caller
+        JsonReader reader = new JsonReader(in);
+        readObject(reader, 0, null);
+    }
+
+    // Walks one object and returns its "_text" value, if it has one.
+    // Fields of the form "name":{"_text":"value"} and plain "name":"value" are
+    // collected per object; an object holding "tokens" is a recharge transaction.
+    private String readObject(JsonReader reader, int depth, String path) throws IOException {
+        Map<String, String> fields = new HashMap<>();
+        String text = null;
+
+        reader.beginObject();
+        while (reader.hasNext()) {
+            String name = reader.nextName();
+            JsonToken token = reader.peek();
+
+            if (token == JsonToken.BEGIN_OBJECT) {
+                // Paths are only needed to find mCustomerData.result near the top
+                String childPath = depth < 2 ? (path == null ? name : path + "." + name) : null;
+                String childText = readObject(reader, depth + 1, childPath);
+                if (childText != null) {
+                    fields.put(name, childText);
+                }
+            } else if (token == JsonToken.BEGIN_ARRAY) {
+                readArray(reader, depth + 1);
+            } else if (token == JsonToken.NULL) {
+                reader.nextNull();
+            } else {
+                String value = token == JsonToken.BOOLEAN ? String.valueOf(reader.nextBoolean()) : reader.nextString();
+                if (name.equals("_text")) {
+                    text = value;
+                } else {
+                    fields.put(name, value);
+                    if (name.equals("customerNo") && token == JsonToken.STRING) {
+                        onCustomerNo(value);
+                    }
+                }
+            }
+        }
+        reader.endObject();
+
+        if ("mCustomerData.result".equals(path)) {
+            customerRecord = fields;
+            listener.onCustomerRecord(fields);
+        } else if (fields.containsKey("tokens")) {
+            transactions.add(fields);
+            listener.onTransaction(fields);
+        }
+        return text;
+    }
+
+    private void readArray(JsonReader reader, int depth) throws IOException {
+        reader.beginArray();
+        while (reader.hasNext()) {
+            if (reader.peek() == JsonToken.BEGIN_OBJECT) {
+                readObject(reader, depth, null);
+            } else if (reader.peek() == JsonToken.BEGIN_ARRAY) {
+                readArray(reader, depth + 1);
+            } else {
+                reader.skipValue();
+            }
+        }
+        reader.endArray();
+    }
+
+    private void onCustomerNo(String value) {
+        if (consumerNumber != null || value.isEmpty()) {
+            return;
+        }
+        for (int i = 0; i < value.length(); i++) {
+            if (!Character.isDigit(value.charAt(i))) {
+                return;
+            }
+        }
+        consumerNumber = value;
+        listener.onConsumerNumber(value);
+    }
+}
@@ -0,0 +1,533 @@
+package customerinfo.app;
+
+import org.json.JSONArray;
+import org.json.JSONObject;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Turns raw server data into AccountRecords once, when the responses arrive,
+// and merges SERVER 2 + SERVER 3 into one customer view for display and Excel.
+public class ServerDataHelper {
+
+    // Merged view of each account, computed on first use. Weak keys (accounts compare by
+    // identity): a view goes away with its account.
+    private static final Map<AccountRecords.PostpaidAccount, Map<String, Object>> mergedViews = new WeakHashMap<>();
+
+    // Merged views computed, and served again from mergedViews
+    private static final AtomicLong merges = new AtomicLong();
+    private static final AtomicLong mergeReuses = new AtomicLong();
+
+    private ServerDataHelper() {
+    }
+
+    // SERVER 1 data arrives already parsed by Server1StreamParser
+    public static AccountRecords.PrepaidAccount buildPrepaidAccount(String meterNumber,
+                                                                    Server1StreamParser.Result SERVER1Data) {
+        // mCustomerData.result
+        Map<String, String> customerInfo = new LinkedHashMap<>();
+        Map<String, String> record = SERVER1Data.customerRecord;
+        if (record != null) {
+            putIfPresent(customerInfo, "Consumer Number", extractDirectValue(record, "customerAccountNo"));
+            putIfPresent(customerInfo, "Name", extractDirectValue(record, "customerName"));
+            putIfPresent(customerInfo, "Address", extractDirectValue(record, "customerAddress"));
+            putIfPresent(customerInfo, "Phone", extractDirectValue(record, "customerPhone"));
+            putIfPresent(customerInfo, "Division", extractDirectValue(record, "division"));
+            putIfPresent(customerInfo, "Sub Division", extractDirectValue(record, "sndDivision"));
+            putIfPresent(customerInfo, "Tariff Category", extractDirectValue(record, "tariffCategory"));
+            putIfPresent(customerInfo, "Connection Category", extractDirectValue(record, "connectionCategory"));
+            putIfPresent(customerInfo, "Account Type", extractDirectValue(record, "accountType"));
+            putIfPresent(customerInfo, "Meter Type", extractDirectValue(record, "meterType"));
+            putIfPresent(customerInfo, "Sanctioned Load", extractDirectValue(record, "sanctionLoad"));
+            putIfPresent(customerInfo, "Meter Number", extractDirectValue(record, "meterNumber"));
+            putIfPresent(customerInfo, "Last Recharge Amount", extractDirectValue(record, "lastRechargeAmount"));
+            putIfPresent(customerInfo, "Last Recharge Time", extractDirectValue(record, "lastRechargeTime"));
+            putIfPresent(customerInfo, "Installation Date", extractDirectValue(record, "installationDate"));
+            putIfPresent(customerInfo, "Lock Status", extractDirectValue(record, "lockStatus"));
+            putIfPresent(customerInfo, "Total Recharge This Month", extractDirectValue(record, "totalRechargeThisMonth"));
+        }
+
+        // Recharge orders with tokens
+        List<AccountRecords.RechargeTransaction> transactions = new ArrayList<>();
+        for (Map<String, String> order : SERVER1Data.transactions) {
+            transactions.add(new AccountRecords.RechargeTransaction(
+                    extractDirectValue(order, "date"),
+                    extractDirectValue(order, "orderNo"),
+                    extractDirectValue(order, "grossAmount"),
+                    extractDirectValue(order, "energyCost"),
+                    extractDirectValue(order, "operator"),
+                    extractDirectValue(order, "sequence"),
+                    extractDirectValue(order, "tokens")));
+        }
+
+        System.out.println("✅ SERVER1: Prepaid account with " + customerInfo.size() + " fields, "
+                + transactions.size() + " transactions");
+        return new AccountRecords.PrepaidAccount(meterNumber, SERVER1Data.consumerNumber, customerInfo, transactions);
+    }
+
+    // Value of a SERVER 1 record field, "N/A" when missing or empty
+    private static String extractDirectValue(Map<String, String> record, String key) {
+        String value = record.get(key);
+        if (value == null) {
+            return "N/A";
+        }
+        value = value.trim();
+        return (value.isEmpty() || value.equals("{}")) ? "N/A" : value;
+    }
+
+    // Customer fields only keep real values
+    private static void putIfPresent(Map<String, String> fields, String label, String value) {
+        if (value != null && !value.isEmpty() && !value.equals("N/A") && !value.equals("null")) {
+            fields.put(label, value);
+        }
+    }
+
+    // SERVER 2 and SERVER 3 data of one customer; either side may be null.
+    // A SERVER 2 response carrying an "error" counts as missing.
+    public static AccountRecords.PostpaidAccount buildPostpaidAccount(String customerNumber,
+                                                                      JSONObject SERVER2Data, JSONObject SERVER3Data) {
+        Map<String, String> server2Info = null;
+        AccountRecords.BalanceBreakdown balance = null;
+        List<AccountRecords.BillRow> bills = new ArrayList<>();
+
+        if (SERVER2Data != null && !SERVER2Data.has("error")) {
+            System.out.println("🔍 CLEAN SERVER2: Available keys: " + getJSONKeys(SERVER2Data));
+            server2Info = readSERVER2CustomerInfo(SERVER2Data);
+            balance = readSERVER2Balance(SERVER2Data);
+            bills = readBills(SERVER2Data);
+        }
+
+        Map<String, String> server3Info = null;
+        AccountRecords.BalanceBreakdown server3Balance = null;
+        if (SERVER3Data != null) {
+            server3Info = readSERVER3CustomerInfo(SERVER3Data);
+            if (SERVER3Data.has("arrearAmount")) {
+                String arrearAmount = SERVER3Data.optString("arrearAmount");
+                server3Balance = new AccountRecords.BalanceBreakdown(AccountRecords.BalanceBreakdown.SERVER3_ARREAR,
+                        arrearAmount, arrearAmount, null, null, null, null, null);
+            }
+        }
+
+        return new AccountRecords.PostpaidAccount(customerNumber, server2Info, server3Info,
+                balance, server3Balance, bills);
+    }
+
+    private static Map<String, String> readSERVER2CustomerInfo(JSONObject SERVER2Data) {
+        Map<String, String> customerInfo = new LinkedHashMap<>();
+        try {
+            JSONArray customerInfoArray = SERVER2Data.optJSONArray("customerInfo");
+            if (customerInfoArray != null && customerInfoArray.length() > 0
+                    && customerInfoArray.getJSONArray(0).length() > 0) {
+                JSONObject firstCustomer = customerInfoArray.getJSONArray(0).getJSONObject(0);
+
+                putIfPresent(customerInfo, "Customer Number", firstCustomer.optString("CUSTOMER_NUMBER"));
+                putIfPresent(customerInfo, "Customer Name", firstCustomer.optString("CUSTOMER_NAME"));
+                putIfPresent(customerInfo, "Address", firstCustomer.optString("ADDRESS"));
+                putIfPresent(customerInfo, "Tariff", firstCustomer.optString("TARIFF"));
+                putIfPresent(customerInfo, "Location Code", firstCustomer.optString("LOCATION_CODE"));
+                putIfPresent(customerInfo, "Bill Group", firstCustomer.optString("BILL_GROUP"));
+                putIfPresent(customerInfo, "Book", firstCustomer.optString("BOOK"));
+                putIfPresent(customerInfo, "Walking Sequence", firstCustomer.optString("WALKING_SEQUENCE"));
+                putIfPresent(customerInfo, "Meter Number", firstCustomer.optString("METER_NUM"));
+                putIfPresent(customerInfo, "Meter Status", getMeterStatus(firstCustomer.optString("METER_STATUS")));
+                putIfPresent(customerInfo, "Connection Date", formatDate(firstCustomer.optString("METER_CONNECT_DATE")));
+                putIfPresent(customerInfo, "Description", firstCustomer.optString("DESCR"));
+                putIfPresent(customerInfo, "Account_Number", firstCustomer.optString("CONS_EXTG_NUM"));
+                putIfPresent(customerInfo, "Usage Type", firstCustomer.optString("USAGE_TYPE"));
+                putIfPresent(customerInfo, "Start Bill Cycle", firstCustomer.optString("START_BILL_CYCLE"));
+                System.out.println("✅ CLEAN SERVER2: Customer info extracted");
+            } else {
+                System.out.println("❌ CLEAN SERVER2: No customerInfo found");
+            }
+        } catch (Exception e) {
+            System.out.println("❌ CLEAN SERVER2: Error parsing customerInfo: " + e.getMessage());
+        }
+        return customerInfo;
+    }
+
+    // finalBalanceInfo has the detailed breakdown; balanceInfo is the fallback
+    private static AccountRecords.BalanceBreakdown readSERVER2Balance(JSONObject SERVER2Data) {
+        if (SERVER2Data.has("finalBalanceInfo")) {
+            AccountRecords.BalanceBreakdown balance = parseFinalBalanceInfo(SERVER2Data.optString("finalBalanceInfo"));
+            if (balance != null) {
+                return balance;
+            }
+        }
+
+        if (SERVER2Data.has("balanceInfo")) {
+            try {
+                JSONObject balanceInfoObj = SERVER2Data.getJSONObject("balanceInfo");
+                if (balanceInfoObj.has("Result") && balanceInfoObj.getJSONArray("Result").length() > 0) {
+                    JSONObject firstBalance = balanceInfoObj.getJSONArray("Result").getJSONObject(0);
+
+                    double totalBalance = firstBalance.optDouble("BALANCE", 0);
+                    double currentBill = firstBalance.optDouble("CURRENT_BILL", 0);
+                    double arrearBill = firstBalance.optDouble("ARREAR_BILL", 0);
+                    double paidAmount = firstBalance.optDouble("PAID_AMT", 0);
+
+                    // Calculate components if available
+                    String principal = null;
+                    String lps = null;
+                    if (totalBalance > 0 && currentBill + arrearBill > 0) {
+                        double principalAmount = currentBill + arrearBill - paidAmount;
+                        principal = String.format("%.2f", principalAmount);
+                        lps = String.format("%.2f", Math.max(0, totalBalance - principalAmount));
+                    }
+
+                    System.out.println("✅ CLEAN SERVER2: Balance info extracted from balanceInfo");
+                    return new AccountRecords.BalanceBreakdown(AccountRecords.BalanceBreakdown.BALANCE_INFO,
+                            String.format("%.2f", totalBalance), String.format("%.2f", arrearBill),
+                            principal, lps, null, String.format("%.2f", currentBill),
+                            String.format("%.2f", paidAmount));
+                }
+            } catch (Exception e) {
+                System.out.println("❌ CLEAN SERVER2: Error parsing balanceInfo: " + e.getMessage());
+            }
+        }
+
+        System.out.println("❌ CLEAN SERVER2: No balance information found");
+        return null;
+    }
+
+    // finalBalanceInfo is either "1234.56" or "1234.56, PRN:1000.00, LPS:234.56, ..."; null if empty
+    private static AccountRecords.BalanceBreakdown parseFinalBalanceInfo(String balanceString) {
+        if (balanceString == null || balanceString.isEmpty() || balanceString.equals("null")) {
+            return null;
+        }
+
+        String source = AccountRecords.BalanceBreakdown.FINAL_BALANCE_INFO;
+        try {
+            // Format 1: Simple total amount "1234.56"
+            if (!balanceString.contains(",") && !balanceString.contains(":")) {
+                String total = balanceString.trim();
+                return new AccountRecords.BalanceBreakdown(source, total, total, null, null, null, null, null);
+            }
+
+            // Format 2: Detailed breakdown - first part is always the total balance
+            String[] parts = balanceString.split(",");
+            String totalBalance = parts[0].trim();
+            String arrearAmount = totalBalance;
+            String principal = null;
+            String lps = null;
+            String vat = null;
+            String currentBill = null;
+
+            for (int i = 1; i < parts.length; i++) {
+                String part = parts[i].trim();
+                if (part.startsWith("PRN:")) {
+                    principal = part.substring(4).trim();
+                } else if (part.startsWith("LPS:")) {
+                    lps = part.substring(4).trim();
+                } else if (part.startsWith("VAT:")) {
+                    vat = part.substring(4).trim();
+                } else if (part.startsWith("Current:")) {
+                    currentBill = part.substring(8).trim();
+                } else if (part.startsWith("Arrear:")) {
+                    arrearAmount = part.substring(7).trim();
+                }
+            }
+
+            return new AccountRecords.BalanceBreakdown(source, totalBalance, arrearAmount, principal, lps, vat,
+                    currentBill, null);
+        } catch (Exception e) {
+            System.out.println("❌ Error parsing finalBalanceInfo: " + e.getMessage());
+            // Fallback: use the entire string as total balance
+            return new AccountRecords.BalanceBreakdown(source, balanceString, balanceString,
+                    null, null, null, null, null);
+        }
+    }
+
+    // Every bill SERVER 2 sent, newest first
+    private static List<AccountRecords.BillRow> readBills(JSONObject SERVER2Data) {
+        List<AccountRecords.BillRow> bills = new ArrayList<>();
+        JSONArray billInfo = SERVER2Data.optJSONArray("billInfo");
+        if (billInfo == null) {
+            System.out.println("❌ CLEAN SERVER2: No billInfo found in SERVER2 data");
+            return bills;
+        }
+
+        for (int i = 0; i < billInfo.length(); i++) {
+            JSONObject bill = billInfo.optJSONObject(i);
+            if (bill == null) {
+                continue;
+            }
+            String billMonth = optText(bill, "BILL_MONTH");
+            bills.add(new AccountRecords.BillRow(
+                    billMonth,
+                    formatBillMonth(billMonth),
+                    optText(bill, "BILL_NO"),
+                    bill.optDouble("CONS_KWH_SR", 0),
+                    bill.optDouble("CURRENT_BILL", 0),
+                    bill.optDouble("ARREAR_BILL", 0),
+                    bill.optDouble("TOTAL_BILL", 0),
+                    bill.optDouble("PAID_AMT", 0),
+                    bill.optDouble("BALANCE", 0),
+                    optText(bill, "INVOICE_DUE_DATE"),
+                    optText(bill, "RECEIPT_DATE")));
+        }
+        System.out.println("✅ CLEAN SERVER2: Bill information extracted - " + bills.size() + " bills");
+        return bills;
+    }
+
+    // String field, or null when missing or JSON null
+    private static String optText(JSONObject json, String key) {
+        return json.isNull(key) ? null : json.optString(key);
+    }
+
+    private static Map<String, String> readSERVER3CustomerInfo(JSONObject SERVER3Data) {
+        Map<String, String> customerInfo = new LinkedHashMap<>();
+
+        putIfPresent(customerInfo, "Customer Number", SERVER3Data.optString("customerNumber"));
+        putIfPresent(customerInfo, "Customer Name", SERVER3Data.optString("customerName"));
+        putIfPresent(customerInfo, "Customer Address", SERVER3Data.optString("customerAddr"));
+        putIfPresent(customerInfo, "Father Name", SERVER3Data.optString("fatherName"));
+        putIfPresent(customerInfo, "Location Code", SERVER3Data.optString("locationCode"));
+        putIfPresent(customerInfo, "Area Code", SERVER3Data.optString("areaCode"));
+        putIfPresent(customerInfo, "Book Number", SERVER3Data.optString("bookNumber"));
+        putIfPresent(customerInfo, "Bill Group", SERVER3Data.optString("billGroup"));
+        putIfPresent(customerInfo, "Meter Number", SERVER3Data.optString("meterNum"));
+        putIfPresent(customerInfo, "Meter Condition", SERVER3Data.optString("meterConditionDesc"));
+        putIfPresent(customerInfo, "Sanctioned Load", SERVER3Data.optString("sanctionedLoad"));
+        putIfPresent(customerInfo, "Tariff Description", SERVER3Data.optString("tariffDesc"));
+        putIfPresent(customerInfo, "Walk Order", SERVER3Data.optString("walkOrder"));
+        putIfPresent(customerInfo, "Arrear Amount", SERVER3Data.optString("arrearAmount"));
+        // SERVER3's lastBillReadingSr matches SERVER2's CONS_KWH_SR
+        putIfPresent(customerInfo, "Last Bill Reading SR", SERVER3Data.optString("lastBillReadingSr"));
+        putIfPresent(customerInfo, "Last Bill Reading OF PK", SERVER3Data.optString("lastBillReadingOfPk"));
+        putIfPresent(customerInfo, "Last Bill Reading PK", SERVER3Data.optString("lastBillReadingPk"));
+
+        return customerInfo;
+    }
+
+    // SERVER 2 + SERVER 3 customer view of a lookup result, or null if neither server sent data.
+    // Merged once per account and shared by display, Excel and the bill table, so the returned
+    // map and everything in it is read-only.
+    public static Map<String, Object> mergeSERVERData(Map<String, Object> result) {
+        Object accountObj = result.get("postpaid_account");
+        if (!(accountObj instanceof AccountRecords.PostpaidAccount)) {
+            return null;
+        }
+        AccountRecords.PostpaidAccount account = (AccountRecords.PostpaidAccount) accountObj;
+
+        // A merge only copies a few maps, so one lock for all accounts is enough
+        synchronized (mergedViews) {
+            Map<String, Object> view = mergedViews.get(account);
+            if (view != null) {
+                mergeReuses.incrementAndGet();
+                return view;
+            }
+            view = merge(account);
+            mergedViews.put(account, view);
+            return view;
+        }
+    }
+
+    // Same view for a lookup still in progress (the section-by-section display). Neither cached
+    // nor counted: the partial accounts are thrown away as servers land, and the finished
+    // lookup merges its complete account through mergeSERVERData once.
+    public static Map<String, Object> previewMerge(AccountRecords.PostpaidAccount account) {
+        return buildMergedView(account);
+    }
+
+    private static Map<String, Object> merge(AccountRecords.PostpaidAccount account) {
+        merges.incrementAndGet();
+
+        Map<String, Object> merged = buildMergedView(account);
+        Map<String, Object> uniqueAnalysis = (Map<String, Object>) merged.get("unique_analysis");
+        System.out.println("🔍 UNIQUE ANALYSIS: SERVER2=" + uniqueAnalysis.get("total_unique_server2") +
+                ", SERVER3=" + uniqueAnalysis.get("total_unique_server3") +
+                ", Overlapping=" + uniqueAnalysis.get("total_overlapping"));
+        return merged;
+    }
+
+    // SERVER 2 values win where both servers have a field; bills and balance come from SERVER 2
+    // when it has them.
+    private static Map<String, Object> buildMergedView(AccountRecords.PostpaidAccount account) {
+        Map<String, Object> merged = new HashMap<>();
+        Map<String, String> customerInfo = new LinkedHashMap<>();
+        Map<String, String> uniqueSERVER2Fields = new HashMap<>();
+        Map<String, String> uniqueSERVER3Fields = new HashMap<>();
+        Map<String, String> overlappingFields = new HashMap<>();
+
+        // SERVER 2 first, since it has the bill info
+        if (account.hasServer2() && !account.server2Info.isEmpty()) {
+            customerInfo.putAll(account.server2Info);
+            uniqueSERVER2Fields.putAll(account.server2Info);
+
+            // Current reading from the latest bill
+            if (!account.bills.isEmpty() && !customerInfo.containsKey("Current Reading SR")) {
+                String currentReading = String.valueOf(account.bills.get(0).consumption);
+                customerInfo.put("Current Reading SR", currentReading);
+                uniqueSERVER2Fields.put("Current Reading SR", currentReading);
+            }
+        }
+        if (!account.bills.isEmpty()) {
+            merged.put("bills", account.bills);
+        }
+
+        // THEN supplement with SERVER 3 data
+        if (account.hasServer3()) {
+            for (Map.Entry<String, String> entry : account.server3Info.entrySet()) {
+                if (customerInfo.containsKey(entry.getKey())) {
+                    // Overlapping field - SERVER2 value takes precedence
+                    overlappingFields.put(entry.getKey(), customerInfo.get(entry.getKey()));
+                } else {
+                    customerInfo.put(entry.getKey(), entry.getValue());
+                    uniqueSERVER3Fields.put(entry.getKey(), entry.getValue());
+                }
+            }
+        }
+        if (!customerInfo.isEmpty()) {
+            merged.put("customer_info", Collections.unmodifiableMap(customerInfo));
+        }
+
+        AccountRecords.BalanceBreakdown balance = account.getBalance();
+        if (balance != null) {
+            merged.put("balance_info", balance.toMap());
+        }
+
+        // Store unique value analysis
+        Map<String, Object> uniqueAnalysis = new HashMap<>();
+        uniqueAnalysis.put("server2_unique", Collections.unmodifiableMap(uniqueSERVER2Fields));
+        uniqueAnalysis.put("server3_unique", Collections.unmodifiableMap(uniqueSERVER3Fields));
+        uniqueAnalysis.put("overlapping", Collections.unmodifiableMap(overlappingFields));
+        uniqueAnalysis.put("total_unique_server2", uniqueSERVER2Fields.size());
+        uniqueAnalysis.put("total_unique_server3", uniqueSERVER3Fields.size());
+        uniqueAnalysis.put("total_overlapping", overlappingFields.size());
+        merged.put("unique_analysis", Collections.unmodifiableMap(uniqueAnalysis));
+        return Collections.unmodifiableMap(merged);
+    }
+
+    public static long getMergeCount() {
+        return merges.get();
+    }
+
+    public static long getMergeReuseCount() {
+        return mergeReuses.get();
+    }
+
+    // e.g. "12 merged, 31 reused"
+    public static String mergeSummary() {
+        return merges.get() + " merged, " + mergeReuses.get() + " reused\n";
+    }
+
+    private static String getMeterStatus(String statusCode) {
+        Map<String, String> statusMap = new HashMap<>();
+        statusMap.put("1", "Active");
+        statusMap.put("2", "Inactive");
+        statusMap.put("3", "Disconnected");
+        return statusMap.getOrDefault(statusCode, "Unknown (" + statusCode + ")");
+    }
+
+    static String formatDate(String dateString) {
+        if (dateString == null || dateString.isEmpty()) {
+            return "N/A";
+        }
+        try {
+            if (dateString.contains("T")) {
+                return dateString.split("T")[0];
+            }
+            return dateString;
+        } catch (Exception e) {
+            return dateString;
+        }
+    }
+
+    // Helper to format bill month
+    static String formatBillMonth(String dateStr) {
+        if (dateStr == null || dateStr.isEmpty() || dateStr.equals("null")) {
+            return "N/A";
+        }
+
+        try {
+            // Extract YYYY-MM from date string
+            String[] parts = dateStr.substring(0, 10).split("-");
+            if (parts.length >= 2) {
+                int year = Integer.parseInt(parts[0]);
+                int month = Integer.parseInt(parts[1]);
+
+                String[] monthNames = {"Jan", "Feb", "Mar", "Apr", "May", "Jun",
+                        "Jul", "Aug", "Sep", "Oct", "Nov", "Dec"};
+
+                if (month >= 1 && month <= 12) {
+                    return monthNames[month - 1] + "-" + year;
+                }
+            }
+            return dateStr.substring(0, 7); // Fallback to YYYY-MM
+        } catch (Exception e) {
+            return dateStr.length() >= 7 ? dateStr.substring(0, 7) : dateStr;
+        }
+    }
+
+    // Helper to debug JSON keys
+    static String getJSONKeys(JSONObject json) {
+        try {
+            Iterator<String> keys = json.keys();
+            List<String> keyList = new ArrayList<>();
+            while (keys.hasNext()) {
+                keyList.add(keys.next());
+            }
+            return String.join(", ", keyList);
+        } catch (Exception e) {
+            return "Error getting keys";
+        }
+    }
+
+    public static Map<String, String> extractDataForExcel(Map<String, Object> result, String type) {
+        java.util.Map<String, String> excelData = new java.util.HashMap<>();
+
+        try {
+            if ("prepaid".equals(type)) {
+                excelData.put("Meter Number", getSafeString(result.get("meter_number")));
+                excelData.put("Consumer Number", getSafeString(result.get("consumer_number")));
+
+                Map<String, Object> mergedData = mergeSERVERData(result);
+                if (mergedData != null) {
+                    Map<String, String> customerInfo = (Map<String, String>) mergedData.get("customer_info");
+                    Map<String, String> balanceInfo = (Map<String, String>) mergedData.get("balance_info");
+
+                    if (customerInfo != null) {
+                        excelData.putAll(customerInfo);
+                    }
+                    if (balanceInfo != null) {
+                        excelData.put("Arrear Amount", balanceInfo.get("Arrear Amount"));
+                        excelData.put("Total Balance", balanceInfo.get("Total Balance"));
+                    }
+                }
+
+            } else {
+                excelData.put("Customer Number", getSafeString(result.get("customer_number")));
+
+                Map<String, Object> mergedData = mergeSERVERData(result);
+                if (mergedData != null) {
+                    Map<String, String> customerInfo = (Map<String, String>) mergedData.get("customer_info");
+                    Map<String, String> balanceInfo = (Map<String, String>) mergedData.get("balance_info");
+
+                    if (customerInfo != null) {
+                        excelData.putAll(customerInfo);
+                    }
+                    if (balanceInfo != null) {
+                        excelData.put("Arrear Amount", balanceInfo.get("Arrear Amount"));
+                    }
+                }
+            }
+        } catch (Exception e) {
+            System.out.println("❌ Error extracting data for Excel: " + e.getMessage());
+        }
+
+        return excelData;
+    }
+
+    private static String getSafeString(Object value) {
+        if (value == null) return "N/A";
+        String stringValue = value.toString();
+        return (stringValue.equals("null") || stringValue.isEmpty()) ? "N/A" : stringValue;
+    }
+}
@@ -0,0 +1,115 @@
+package customerinfo.app;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+// Coalesces identical lookups that are in flight at the same time.
+// The first caller for a key does the work; anyone asking for the same key meanwhile
+// waits for that result instead of starting another request (double taps, the
+// application form reopening a meter that MainActivity is still fetching, ...).
+public class SingleFlight {
+
+    private static final Map<String, Flight> inFlight = new ConcurrentHashMap<>();
+    private static final AtomicLong savedRequests = new AtomicLong();
+    // How often a waiting caller checks whether its own lookup was cancelled
+    private static final long CANCEL_CHECK_MS = 100;
+
+    // One running lookup and the callers waiting for it
+    private static class Flight {
+        final CountDownLatch done = new CountDownLatch(1);
+        final LookupContext owner = LookupContext.current();
+        volatile Map<String, Object> result;
+    }
+
+    private SingleFlight() {
+    }
+
+    // Run lookup for key, or join the identical lookup already running.
+    // Every caller gets its own shallow copy, so callers can add keys freely.
+    public static Map<String, Object> execute(String key, Supplier<Map<String, Object>> lookup) {
+        while (true) {
+            Flight flight = new Flight();
+            Flight running = inFlight.putIfAbsent(key, flight);
+
+            if (running == null) {
+                try {
+                    flight.result = lookup.get();
+                } finally {
+                    inFlight.remove(key, flight);
+                    flight.done.countDown();
+                }
+                return copy(flight.result);
+            }
+
+            Map<String, Object> gaveUp = await(running);
+            if (gaveUp != null) {
+                return gaveUp;
+            }
+
+            // A lookup that was superseded was cut short - don't hand its result to a live caller
+            if (running.owner != null && running.owner.isCancelled() && running.owner != LookupContext.current()) {
+                System.out.println("🔁 SINGLE FLIGHT: " + key + " owner was cancelled, fetching again");
+                continue;
+            }
+
+            long saved = savedRequests.incrementAndGet();
+            System.out.println("🔗 SINGLE FLIGHT: Joined in-flight " + key + " (" + saved + " requests saved)");
+            return copy(running.result);
+        }
+    }
+
+    // Wait for the running flight, but only as long as the caller's own lookup allows.
+    // Returns null once the flight is done, or an error if the caller gave up first.
+    private static Map<String, Object> await(Flight running) {
+        LookupContext context = LookupContext.current();
+        try {
+            if (context == null) {
+                running.done.await();
+                return null;
+            }
+            while (true) {
+                if (context.isCancelled()) {
+                    return error("Lookup cancelled");
+                }
+                long remainingMs = context.getRemainingMillis();
+                if (remainingMs <= 0) {
+                    return error("Lookup deadline exceeded");
+                }
+                // cancel() doesn't wake waiters, so check for it every slice
+                if (running.done.await(Math.min(remainingMs, CANCEL_CHECK_MS), TimeUnit.MILLISECONDS)) {
+                    return null;
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return error("Lookup interrupted");
+        }
+    }
+
+    private static Map<String, Object> error(String message) {
+        Map<String, Object> result = new HashMap<>();
+        result.put("error", message);
+        return result;
+    }
+
+    // Requests that were not sent because an identical one was already running
+    public static long getSavedRequests() {
+        return savedRequests.get();
+    }
+
+    public static int getInFlightCount() {
+        return inFlight.size();
+    }
+
+    private static Map<String, Object> copy(Map<String, Object> result) {
+        if (result == null) {
+            return error("Lookup failed");
+        }
+        return new HashMap<>(result);
+    }
+}
@@ -0,0 +1,243 @@
+package customerinfo.app;
+
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+
+// Streaming parsers for the JSON servers.
+// The response is read token by token straight from the socket and only the fields
+// the app actually uses are kept, so a long billInfo history is never held as a
+// String, a StringBuilder and a full JSONObject tree at the same time.
+// The returned JSONObjects have the same shape as the server response, just trimmed.
+public class StreamingJsonParser {
+
+    // SERVER 2 customerInfo[0][0] fields used by cleanSERVER2Data and ApplicationFormHelper
+    private static final Set<String> SERVER2_CUSTOMER_FIELDS = new HashSet<>(Arrays.asList(
+            "CUSTOMER_NUMBER", "CUSTOMER_NAME", "ADDRESS", "TARIFF", "LOCATION_CODE", "BILL_GROUP",
+            "BOOK", "WALKING_SEQUENCE", "METER_NUM", "METER_STATUS", "METER_CONNECT_DATE", "DESCR",
+            "CONS_EXTG_NUM", "USAGE_TYPE", "START_BILL_CYCLE"));
+
+    // SERVER 2 balanceInfo.Result[0] fields
+    private static final Set<String> SERVER2_BALANCE_FIELDS = new HashSet<>(Arrays.asList(
+            "BALANCE", "CURRENT_BILL", "ARREAR_BILL", "PAID_AMT"));
+
+    // SERVER 2 billInfo row fields shown in the bill summary and table
+    private static final Set<String> SERVER2_BILL_FIELDS = new HashSet<>(Arrays.asList(
+            "BILL_MONTH", "BILL_NO", "CONS_KWH_SR", "OPN_KWH_SR_RDNG", "CURRENT_BILL", "ARREAR_BILL",
+            "TOTAL_BILL", "INVOICE_DUE_DATE", "PAID_AMT", "RECEIPT_DATE", "BALANCE"));
+
+    // SERVER 3 fields used by cleanSERVER3Data and ApplicationFormHelper
+    private static final Set<String> SERVER3_FIELDS = new HashSet<>(Arrays.asList(
+            "customerNumber", "customerName", "customerAddr", "fatherName", "locationCode", "areaCode",
+            "bookNumber", "billGroup", "meterNum", "meterConditionDesc", "sanctionedLoad", "tariffDesc",
+            "walkOrder", "arrearAmount", "lastBillReadingSr", "lastBillReadingOfPk", "lastBillReadingPk"));
+
+    // Meter lookup content[] fields
+    private static final Set<String> METER_CUSTOMER_FIELDS = new HashSet<>(Arrays.asList(
+            "CUSTOMER_NUM", "CUSTOMER_NAME"));
+
+    private StreamingJsonParser() {
+    }
+
+    // SERVER 2 CustomerInformation: customerInfo, finalBalanceInfo, balanceInfo.Result, billInfo
+    public static JSONObject parseServer2(Reader body) throws IOException, JSONException {
+        JSONObject server2Data = new JSONObject();
+
+        try (JsonReader reader = new JsonReader(body)) {
+            reader.beginObject();
+            while (reader.hasNext()) {
+                String name = reader.nextName();
+                switch (name) {
+                    case "customerInfo":
+                        server2Data.put(name, readCustomerInfo(reader));
+                        break;
+                    case "finalBalanceInfo":
+                    case "error":
+                        server2Data.put(name, readValue(reader));
+                        break;
+                    case "balanceInfo":
+                        server2Data.put(name, readBalanceInfo(reader));
+                        break;
+                    case "billInfo":
+                        server2Data.put(name, readObjectArray(reader, SERVER2_BILL_FIELDS, Integer.MAX_VALUE));
+                        break;
+                    default:
+                        reader.skipValue();
+                }
+            }
+            reader.endObject();
+        }
+        return server2Data;
+    }
+
+    // SERVER 3 get-pre-customer_info: one flat customer object
+    public static JSONObject parseServer3(Reader body) throws IOException, JSONException {
+        try (JsonReader reader = new JsonReader(body)) {
+            return readObject(reader, SERVER3_FIELDS);
+        }
+    }
+
+    // GetCustomerMeterbyMeterNo: status and the customers in content[]
+    public static JSONObject parseMeterLookup(Reader body) throws IOException, JSONException {
+        JSONObject meterData = new JSONObject();
+
+        try (JsonReader reader = new JsonReader(body)) {
+            reader.beginObject();
+            while (reader.hasNext()) {
+                String name = reader.nextName();
+                if (name.equals("status")) {
+                    meterData.put(name, readValue(reader));
+                } else if (name.equals("content") && reader.peek() == JsonToken.BEGIN_ARRAY) {
+                    meterData.put(name, readObjectArray(reader, METER_CUSTOMER_FIELDS, Integer.MAX_VALUE));
+                } else {
+                    reader.skipValue();
+                }
+            }
+            reader.endObject();
+        }
+        return meterData;
+    }
+
+    // customerInfo is an array of arrays; only customerInfo[0][0] is ever used
+    private static Object readCustomerInfo(JsonReader reader) throws IOException, JSONException {
+        if (reader.peek() != JsonToken.BEGIN_ARRAY) {
+            return readValue(reader);
+        }
+
+        JSONArray customerInfo = new JSONArray();
+        reader.beginArray();
+        if (reader.hasNext()) {
+            if (reader.peek() == JsonToken.BEGIN_ARRAY) {
+                customerInfo.put(readObjectArray(reader, SERVER2_CUSTOMER_FIELDS, 1));
+            } else {
+                customerInfo.put(readValue(reader));
+            }
+        }
+        while (reader.hasNext()) {
+            reader.skipValue();
+        }
+        reader.endArray();
+        return customerInfo;
+    }
+
+    // balanceInfo: keep Result[0] only
+    private static Object readBalanceInfo(JsonReader reader) throws IOException, JSONException {
+        if (reader.peek() != JsonToken.BEGIN_OBJECT) {
+            return readValue(reader);
+        }
+
+        JSONObject balanceInfo = new JSONObject();
+        reader.beginObject();
+        while (reader.hasNext()) {
+            String name = reader.nextName();
+            if (name.equals("Result") && reader.peek() == JsonToken.BEGIN_ARRAY) {
+                balanceInfo.put(name, readObjectArray(reader, SERVER2_BALANCE_FIELDS, 1));
+            } else {
+                reader.skipValue();
+            }
+        }
+        reader.endObject();
+        return balanceInfo;
+    }
+
+    // Array of objects, keeping the given fields of the first maxItems objects
+    private static JSONArray readObjectArray(JsonReader reader, Set<String> fields, int maxItems)
+            throws IOException, JSONException {
+        JSONArray array = new JSONArray();
+        reader.beginArray();
+        while (reader.hasNext()) {
+            if (array.length() < maxItems && reader.peek() == JsonToken.BEGIN_OBJECT) {
+                array.put(readObject(reader, fields));
+            } else {
+                reader.skipValue();
+            }
+        }
+        reader.endArray();
+        return array;
+    }
+
+    // Object with only the given fields; everything else is skipped without being built
+    private static JSONObject readObject(JsonReader reader, Set<String> fields)
+            throws IOException, JSONException {
+        JSONObject object = new JSONObject();
+        reader.beginObject();
+        while (reader.hasNext()) {
+            String name = reader.nextName();
+            if (fields.contains(name)) {
+                object.put(name, readValue(reader));
+            } else {
+                reader.skipValue();
+            }
+        }
+        reader.endObject();
+        return object;
+    }
+
+    // Any value, converted to the types org.json would have produced
+    private static Object readValue(JsonReader reader) throws IOException, JSONException {
+        switch (reader.peek()) {
+            case BEGIN_OBJECT:
+                JSONObject object = new JSONObject();
+                reader.beginObject();
+                while (reader.hasNext()) {
+                    String name = reader.nextName();
+                    object.put(name, readValue(reader));
+                }
+                reader.endObject();
+                return object;
+            case BEGIN_ARRAY:
+                JSONArray array = new JSONArray();
+                reader.beginArray();
+                while (reader.hasNext()) {
+                    array.put(readValue(reader));
+                }
+                reader.endArray();
+                return array;
+            case NUMBER:
+                return toNumber(reader.nextString());
+            case BOOLEAN:
+                return reader.nextBoolean();
+            case NULL:
+                reader.nextNull();
+                return JSONObject.NULL;
+            default:
+                return reader.nextString();
+        }
+    }
+
+    // Same types as org.json's stringToNumber: decimals (and "-0") stay BigDecimal so
+    // "1234.50" keeps its zero, integers are the smallest of int, long and BigInteger
+    private static Object toNumber(String literal) {
+        try {
+            if (literal.indexOf('.') >= 0 || literal.indexOf('e') >= 0 || literal.indexOf('E') >= 0
+                    || literal.equals("-0")) {
+                BigDecimal value = new BigDecimal(literal);
+                if (literal.charAt(0) == '-' && BigDecimal.ZERO.compareTo(value) == 0) {
+                    return -0.0;
+                }
+                return value;
+            }
+            BigInteger value = new BigInteger(literal);
+            if (value.bitLength() <= 31) {
+                return value.intValue();
+            }
+            if (value.bitLength() <= 63) {
+                return value.longValue();
+            }
+            return value;
+        } catch (NumberFormatException e) {
+            return literal;
+        }
+    }
+}
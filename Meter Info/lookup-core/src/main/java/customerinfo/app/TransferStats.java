@@ -0,0 +1,107 @@
+package customerinfo.app;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Bytes received per server: what came over the wire vs what the parsers got after decoding.
+// Filled in by CompressionInterceptor as response bodies are read.
+public class TransferStats {
+
+    private static final Map<String, Counter> counters = new ConcurrentHashMap<>();
+
+    // Counters for one server
+    public static class Counter {
+        private final AtomicLong responses = new AtomicLong();
+        private final AtomicLong compressedResponses = new AtomicLong();
+        private final AtomicLong wireBytes = new AtomicLong();
+        private final AtomicLong decodedBytes = new AtomicLong();
+
+        public long getResponses() {
+            return responses.get();
+        }
+
+        public long getCompressedResponses() {
+            return compressedResponses.get();
+        }
+
+        public long getWireBytes() {
+            return wireBytes.get();
+        }
+
+        public long getDecodedBytes() {
+            return decodedBytes.get();
+        }
+
+        // Bytes not downloaded thanks to compression
+        public long getSavedBytes() {
+            return Math.max(0, getDecodedBytes() - getWireBytes());
+        }
+    }
+
+    private TransferStats() {
+    }
+
+    static Counter counter(String server) {
+        Counter counter = counters.get(server);
+        if (counter == null) {
+            counters.putIfAbsent(server, new Counter());
+            counter = counters.get(server);
+        }
+        return counter;
+    }
+
+    static void recordResponse(String server, boolean compressed) {
+        Counter counter = counter(server);
+        counter.responses.incrementAndGet();
+        if (compressed) {
+            counter.compressedResponses.incrementAndGet();
+        }
+    }
+
+    static void addWireBytes(String server, long bytes) {
+        counter(server).wireBytes.addAndGet(bytes);
+    }
+
+    static void addDecodedBytes(String server, long bytes) {
+        counter(server).decodedBytes.addAndGet(bytes);
+    }
+
+    // Snapshot sorted by server name
+    public static Map<String, Counter> getCounters() {
+        return new TreeMap<>(counters);
+    }
+
+    public static void reset() {
+        counters.clear();
+    }
+
+    // One line per server, e.g. "SERVER2: 3 responses (3 compressed), 41.2 KB wire / 310.5 KB decoded, 87% saved"
+    public static String summary() {
+        StringBuilder summary = new StringBuilder();
+        for (Map.Entry<String, Counter> entry : getCounters().entrySet()) {
+            Counter counter = entry.getValue();
+            long decoded = counter.getDecodedBytes();
+            long savedPercent = decoded > 0 ? counter.getSavedBytes() * 100 / decoded : 0;
+
+            summary.append(entry.getKey()).append(": ")
+                    .append(counter.getResponses()).append(" responses (")
+                    .append(counter.getCompressedResponses()).append(" compressed), ")
+                    .append(formatBytes(counter.getWireBytes())).append(" wire / ")
+                    .append(formatBytes(decoded)).append(" decoded, ")
+                    .append(savedPercent).append("% saved\n");
+        }
+        return summary.toString();
+    }
+
+    static String formatBytes(long bytes) {
+        if (bytes < 1024) {
+            return bytes + " B";
+        }
+        if (bytes < 1024 * 1024) {
+            return String.format("%.1f KB", bytes / 1024.0);
+        }
+        return String.format("%.1f MB", bytes / (1024.0 * 1024.0));
+    }
+}
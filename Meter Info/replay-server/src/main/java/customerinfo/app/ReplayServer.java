@@ -0,0 +1,241 @@
+package customerinfo.app;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Serves fixtures recorded by FixtureRecorder on the same paths as the real servers,
+// so the app can be load-tested and slow or failing servers reproduced without
+// touching the live endpoints. A request gets the fixture recorded for its meter or
+// customer number; numbers without one get the endpoint's fixtures in turn.
+//
+// Options:
+//   --port N          listen port (8080)
+//   --fixtures DIR    directory FixtureRecorder wrote to (./fixtures)
+//   --latency MS      delay before every response (0)
+//   --jitter MS       up to this much more or less delay, uniformly (0)
+//   --error-rate R    share of requests answered with HTTP 503, 0..1 (0)
+//   --bandwidth KBPS  response bodies are sent at most this fast, 0 = unlimited (0)
+//   --seed N          fixed seed, so jitter and errors repeat run to run
+public class ReplayServer {
+
+    private final File fixturesDir;
+    private final long latencyMs;
+    private final long jitterMs;
+    private final double errorRate;
+    private final long bytesPerSecond;
+    private final Random random;
+
+    private final Map<String, AtomicInteger> rotation = new ConcurrentHashMap<>();
+    private final AtomicLong served = new AtomicLong();
+    private final AtomicLong injectedErrors = new AtomicLong();
+    private final AtomicLong missing = new AtomicLong();
+
+    public ReplayServer(File fixturesDir, long latencyMs, long jitterMs, double errorRate,
+                        long bytesPerSecond, Random random) {
+        this.fixturesDir = fixturesDir;
+        this.latencyMs = latencyMs;
+        this.jitterMs = jitterMs;
+        this.errorRate = errorRate;
+        this.bytesPerSecond = bytesPerSecond;
+        this.random = random;
+    }
+
+    public static void main(String[] args) throws IOException {
+        Map<String, String> options = new HashMap<>();
+        for (int i = 0; i < args.length; i++) {
+            if (!args[i].startsWith("--") || i + 1 >= args.length) {
+                System.err.println("Usage: ReplayServer [--port N] [--fixtures DIR] [--latency MS] [--jitter MS]"
+                        + " [--error-rate R] [--bandwidth KBPS] [--seed N]");
+                System.exit(2);
+            }
+            options.put(args[i].substring(2), args[++i]);
+        }
+
+        File fixturesDir = new File(option(options, "fixtures", "fixtures"));
+        if (!fixturesDir.isDirectory()) {
+            System.err.println("❌ REPLAY: No fixtures directory at " + fixturesDir.getAbsolutePath());
+            System.exit(1);
+        }
+        Random random = options.containsKey("seed") ? new Random(Long.parseLong(options.get("seed"))) : new Random();
+
+        ReplayServer replay = new ReplayServer(fixturesDir,
+                Long.parseLong(option(options, "latency", "0")),
+                Long.parseLong(option(options, "jitter", "0")),
+                Double.parseDouble(option(options, "error-rate", "0")),
+                Long.parseLong(option(options, "bandwidth", "0")) * 1024,
+                random);
+        replay.start(Integer.parseInt(option(options, "port", "8080")));
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> System.out.print(replay.summary())));
+    }
+
+    private static String option(Map<String, String> options, String name, String defaultValue) {
+        String value = options.get(name);
+        return value != null ? value : defaultValue;
+    }
+
+    public HttpServer start(int port) throws IOException {
+        HttpServer server = HttpServer.create(new InetSocketAddress(port), 0);
+        server.createContext("/", this::handle);
+        // Every request sleeps through its own latency, so each gets its own thread
+        server.setExecutor(Executors.newCachedThreadPool());
+        server.start();
+
+        System.out.println("📼 REPLAY: Serving " + fixturesDir.getAbsolutePath() + " on port " + port);
+        for (String endpoint : FixtureRecorder.ENDPOINTS) {
+            System.out.println("   " + endpoint + ": " + listFixtures(endpoint).length + " fixtures");
+        }
+        System.out.println("   latency " + latencyMs + " ± " + jitterMs + " ms, error rate " + errorRate
+                + ", bandwidth " + (bytesPerSecond > 0 ? bytesPerSecond / 1024 + " KB/s" : "unlimited"));
+        return server;
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        long started = System.currentTimeMillis();
+        try {
+            String method = exchange.getRequestMethod();
+            String path = exchange.getRequestURI().getPath();
+            String requestBody = "POST".equals(method) ? readAll(exchange.getRequestBody()) : null;
+
+            // ConnectionWarmer only wants a connection
+            if ("HEAD".equals(method)) {
+                exchange.sendResponseHeaders(200, -1);
+                return;
+            }
+
+            sleep(nextDelayMs());
+
+            String endpoint = FixtureRecorder.endpointOf(path);
+            if (endpoint == null) {
+                send(exchange, 404, "text/plain", "No such endpoint: " + path);
+                return;
+            }
+            if (errorRate > 0 && random.nextDouble() < errorRate) {
+                injectedErrors.incrementAndGet();
+                send(exchange, 503, "application/json", "{\"error\":\"Injected failure\"}");
+                log(method, endpoint, "injected 503", started);
+                return;
+            }
+
+            File fixture = pickFixture(endpoint, FixtureRecorder.requestId(endpoint, path, requestBody));
+            if (fixture == null) {
+                missing.incrementAndGet();
+                send(exchange, 404, "text/plain", "No fixtures for " + endpoint);
+                log(method, endpoint, "no fixture", started);
+                return;
+            }
+
+            send(exchange, 200, FixtureRecorder.contentType(endpoint), new String(
+                    Files.readAllBytes(fixture.toPath()), StandardCharsets.UTF_8));
+            served.incrementAndGet();
+            log(method, endpoint, fixture.getName(), started);
+        } catch (Exception e) {
+            System.out.println("❌ REPLAY: " + e.getMessage());
+        } finally {
+            exchange.close();
+        }
+    }
+
+    // The recorded fixture for this number, else the next one of the endpoint
+    private File pickFixture(String endpoint, String id) {
+        if (id != null) {
+            File exact = new File(new File(fixturesDir, endpoint), id + FixtureRecorder.FIXTURE_SUFFIX);
+            if (exact.isFile()) {
+                return exact;
+            }
+        }
+        File[] fixtures = listFixtures(endpoint);
+        if (fixtures.length == 0) {
+            return null;
+        }
+        AtomicInteger next = rotation.computeIfAbsent(endpoint, k -> new AtomicInteger());
+        return fixtures[Math.floorMod(next.getAndIncrement(), fixtures.length)];
+    }
+
+    // Listed per request, so fixtures recorded while the server runs are picked up
+    private File[] listFixtures(String endpoint) {
+        File[] fixtures = new File(fixturesDir, endpoint).listFiles(
+                (dir, name) -> name.endsWith(FixtureRecorder.FIXTURE_SUFFIX));
+        if (fixtures == null) {
+            return new File[0];
+        }
+        Arrays.sort(fixtures);
+        return fixtures;
+    }
+
+    private long nextDelayMs() {
+        if (jitterMs <= 0) {
+            return latencyMs;
+        }
+        long jitter = (long) ((random.nextDouble() * 2 - 1) * jitterMs);
+        return Math.max(0, latencyMs + jitter);
+    }
+
+    // Written in slices of 1/20 s when the bandwidth is capped
+    private void send(HttpExchange exchange, int status, String contentType, String body) throws IOException {
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", contentType);
+        exchange.sendResponseHeaders(status, bytes.length);
+
+        OutputStream out = exchange.getResponseBody();
+        if (bytesPerSecond <= 0) {
+            out.write(bytes);
+            return;
+        }
+        int slice = (int) Math.max(1, bytesPerSecond / 20);
+        for (int offset = 0; offset < bytes.length; offset += slice) {
+            int length = Math.min(slice, bytes.length - offset);
+            out.write(bytes, offset, length);
+            out.flush();
+            sleep(length * 1000L / bytesPerSecond);
+        }
+    }
+
+    private static String readAll(InputStream in) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        byte[] buffer = new byte[4096];
+        int read;
+        while ((read = in.read(buffer)) != -1) {
+            out.write(buffer, 0, read);
+        }
+        return new String(out.toByteArray(), StandardCharsets.UTF_8);
+    }
+
+    private static void sleep(long ms) {
+        if (ms <= 0) {
+            return;
+        }
+        try {
+            Thread.sleep(ms);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void log(String method, String endpoint, String outcome, long started) {
+        System.out.println("📼 REPLAY: " + method + " " + endpoint + " -> " + outcome
+                + " (" + (System.currentTimeMillis() - started) + " ms)");
+    }
+
+    // e.g. "📼 REPLAY: 120 served, 6 injected errors, 0 without fixture"
+    public String summary() {
+        return "📼 REPLAY: " + served.get() + " served, " + injectedErrors.get() + " injected errors, "
+                + missing.get() + " without fixture\n";
+    }
+}